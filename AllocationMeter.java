@@ -0,0 +1,67 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Measures heap bytes allocated by the current thread, using the HotSpot
+// per-thread allocation counter. Run main for a per-algorithm report:
+//   java AllocationMeter [rows cols]
+public class AllocationMeter {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {}
+
+    public static boolean isSupported() {
+        return THREADS instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported();
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 if unsupported
+    public static long threadAllocatedBytes() {
+        if (!isSupported()) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Average bytes allocated per run of query, after the given warmup runs
+    public static double bytesPerQuery(Runnable query, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            query.run();
+        }
+        long before = threadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            query.run();
+        }
+        return (double) (threadAllocatedBytes() - before) / iterations;
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        double[][] heightMap = NoiseMapGenerator.generateHeightMap(rows, cols, 4.25, 42L);
+        for (double[] row : heightMap) {
+            for (int c = 0; c < cols; c++) {
+                row[c] *= 100.0;
+            }
+        }
+        GridGraph graph = new GridGraph(heightMap, GridGraph.StorageMode.FLAT_DOUBLE);
+        Node start = graph.getNode(0, 0);
+        Node end = graph.getNode(rows - 1, cols - 1);
+
+        Map<String, PathfindingAlgorithm> algorithms = new LinkedHashMap<>();
+        algorithms.put("Dijkstra", new DijkstraPathfinder());
+        algorithms.put("A*", new AStarPathfinder(new ManhattanHeuristic()));
+        algorithms.put("Best-First", new BestFirstPathfinder(new ManhattanHeuristic()));
+        algorithms.put("BFS", new BFSPathfinder());
+
+        System.out.printf("%-12s %16s%n", "algorithm", "bytes/query");
+        for (Map.Entry<String, PathfindingAlgorithm> entry : algorithms.entrySet()) {
+            PathfindingAlgorithm algorithm = entry.getValue();
+            double bytes = bytesPerQuery(() -> algorithm.findPath(graph, start, end), 20, 50);
+            System.out.printf("%-12s %16.0f%n", entry.getKey(), bytes);
+        }
+        System.out.printf("contexts created: %d for %d borrows%n",
+            SearchContextPool.getCreatedCount(), SearchContextPool.getBorrowCount());
+    }
+}
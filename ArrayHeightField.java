@@ -0,0 +1,48 @@
+// Heights stored in one flat double[] indexed by row * cols + col
+public class ArrayHeightField implements HeightField {
+    private final int rows;
+    private final int cols;
+    private final double[] heights;
+
+    public ArrayHeightField(double[][] heightMap) {
+        this.rows = heightMap.length;
+        this.cols = heightMap[0].length;
+        this.heights = new double[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(heightMap[r], 0, heights, r * cols, cols);
+        }
+    }
+
+    public ArrayHeightField(int rows, int cols, double[] heights) {
+        if (heights.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + (rows * cols) + " heights, got " + heights.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.heights = heights;
+    }
+
+    @Override
+    public int getRows() { return rows; }
+
+    @Override
+    public int getCols() { return cols; }
+
+    @Override
+    public double getHeight(int row, int col) {
+        return heights[row * cols + col];
+    }
+
+    @Override
+    public double getHeight(int index) {
+        return heights[index];
+    }
+
+    @Override
+    public double getHeapBytesPerCell() { return 8; }
+
+    @Override
+    public void setHeight(int row, int col, double height) {
+        heights[row * cols + col] = height;
+    }
+}
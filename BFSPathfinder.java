@@ -1,63 +1,72 @@
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class BFSPathfinder implements PathfindingAlgorithm {
     @Override
     public PathResult findPath(GridGraph graph, Node start, Node end) {
-        Queue<Node> queue = new LinkedList<>();
-        Set<Node> visited = new HashSet<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
-        Map<Node, Double> costSoFar = new HashMap<>();
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            // FIFO array of cell ids; every cell is enqueued at most once
+            int[] queue = context.getQueue();
+            int head = 0;
+            int tail = 0;
 
-        // Only consider 4 cardinal directions for true BFS behavior
-        int[] dr = {-1, 0, 1, 0};  // North, East, South, West
-        int[] dc = {0, 1, 0, -1};
+            // Every move counts as one edge, whatever its length
+            int directions = graph.getDirectionCount();
+            int[] neighbors = new int[directions];
+            double[] edgeCosts = new double[directions];
+            ThreadLocalRandom random = ThreadLocalRandom.current();
 
-        queue.offer(start);
-        visited.add(start);
-        costSoFar.put(start, 0.0);
+            queue[tail++] = source;
+            context.setCost(source, 0.0, -1);
 
-        while (!queue.isEmpty()) {
-            Node current = queue.poll();
+            while (head != tail) {
+                int current = queue[head++];
 
-            if (current.equals(end)) {
-                break;
-            }
+                if (current == target) {
+                    break;
+                }
+                context.close(current);
 
-            // Collect unvisited neighbors
-            List<Node> neighbors = new ArrayList<>();
-            for (int i = 0; i < 4; i++) {
-                int newRow = current.getRow() + dr[i];
-                int newCol = current.getCol() + dc[i];
-
-                if (newRow >= 0 && newRow < graph.getRows() &&
-                    newCol >= 0 && newCol < graph.getCols()) {
-                    Node next = graph.getNode(newRow, newCol);
-                    if (!visited.contains(next)) {
-                        neighbors.add(next);
+                // Collect unvisited neighbors
+                int count = 0;
+                for (int dir = 0; dir < directions; dir++) {
+                    int next = graph.getNeighborIndex(current, dir);
+                    if (next >= 0 && !context.isSeen(next)) {
+                        double cost = context.edgeCost(graph, current, dir);
+                        if (cost < Double.POSITIVE_INFINITY) {
+                            neighbors[count] = next;
+                            edgeCosts[count++] = cost;
+                        }
                     }
                 }
-            }
 
-            // Shuffle neighbors to eliminate directional bias
-            Collections.shuffle(neighbors);
+                // Shuffle neighbors to eliminate directional bias
+                for (int i = count - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tmp = neighbors[i];
+                    neighbors[i] = neighbors[j];
+                    neighbors[j] = tmp;
+                    double tmpCost = edgeCosts[i];
+                    edgeCosts[i] = edgeCosts[j];
+                    edgeCosts[j] = tmpCost;
+                }
 
-            // Add neighbors to the queue
-            for (Node next : neighbors) {
-                visited.add(next);
-                queue.offer(next);
-                cameFrom.put(next, current);
-                costSoFar.put(next, costSoFar.get(current) + graph.getCost(current, next));
+                // Add neighbors to the queue
+                double currentCost = context.getCost(current);
+                for (int i = 0; i < count; i++) {
+                    int next = neighbors[i];
+                    context.setCost(next, currentCost + edgeCosts[i], current);
+                    queue[tail++] = next;
+                }
             }
-        }
 
-        // Reconstruct path
-        List<Node> path = new ArrayList<>();
-        Node current = end;
-        while (current != null) {
-            path.add(0, current);
-            current = cameFrom.get(current);
+            return SearchStats.report(this, new PathResult(graph, context.pathCells(source, target),
+                                                           context.getCost(target), context.getStats()));
+        } finally {
+            SearchContextPool.release(context);
         }
-
-        return new PathResult(path, costSoFar.getOrDefault(end, Double.POSITIVE_INFINITY));
     }
-}
\ No newline at end of file
+}
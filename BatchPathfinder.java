@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many (start, end) queries against one GridGraph in parallel and returns
+// the results in query order.
+//
+// At most maxInFlight workers are submitted to the executor; each one claims
+// the next unanswered query until none are left, so a huge batch never floods
+// the executor's queue. Any Executor works: ForkJoinPool (the default),
+// a fixed thread pool, or Executors.newVirtualThreadPerTaskExecutor() on 21+.
+//
+// Concurrency: searches only read the graph, so concurrent queries are safe
+// as long as nobody calls GridGraph.setHeight while the batch runs; it
+// rewrites heights and precomputed edge costs in place. The stock
+// pathfinders keep their per-query state in thread-confined SearchContexts,
+// so one instance can be shared by all workers. IndexedAStarPathfinder keeps
+// state in the instance and can't.
+public class BatchPathfinder {
+    private final PathfindingAlgorithm algorithm;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    public BatchPathfinder(PathfindingAlgorithm algorithm) {
+        this(algorithm, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public BatchPathfinder(PathfindingAlgorithm algorithm, Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.algorithm = algorithm;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // Sees each answer as soon as its query is done, e.g. to stream results.
+    // Called on the worker thread, so from several threads at once; nanos is
+    // the time findPath took. Throwing fails the batch like a failed search.
+    public interface ResultListener {
+        void queryFinished(int index, PathResult result, long nanos);
+    }
+
+    // Blocks until every query has been answered
+    public List<PathResult> findPaths(GridGraph graph, List<PathQuery> queries) throws InterruptedException {
+        return start(graph, queries).await();
+    }
+
+    public Batch start(GridGraph graph, List<PathQuery> queries) {
+        return start(graph, queries, null);
+    }
+
+    public Batch start(GridGraph graph, List<PathQuery> queries, ResultListener listener) {
+        Batch batch = new Batch(graph, queries, Math.min(maxInFlight, Math.max(1, queries.size())), listener);
+        for (int i = 0; i < batch.workers; i++) {
+            executor.execute(batch::work);
+        }
+        return batch;
+    }
+
+    public class Batch {
+        private final GridGraph graph;
+        private final List<PathQuery> queries;
+        private final PathResult[] results;
+        private final int workers;
+        private final ResultListener listener;
+        private final AtomicInteger nextQuery = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final CountDownLatch finished;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        private Batch(GridGraph graph, List<PathQuery> queries, int workers, ResultListener listener) {
+            this.graph = graph;
+            this.queries = queries;
+            this.results = new PathResult[queries.size()];
+            this.workers = workers;
+            this.listener = listener;
+            this.finished = new CountDownLatch(workers);
+        }
+
+        private void work() {
+            try {
+                int i;
+                while (!cancelled && (i = nextQuery.getAndIncrement()) < results.length) {
+                    PathQuery query = queries.get(i);
+                    long startTime = System.nanoTime();
+                    results[i] = algorithm.findPath(graph, query.getStart(), query.getEnd());
+                    long nanos = System.nanoTime() - startTime;
+                    if (listener != null) {
+                        listener.queryFinished(i, results[i], nanos);
+                    }
+                    completed.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                failure = t;
+                cancelled = true;
+            } finally {
+                // Executor threads outlive the batch; don't keep full-grid contexts around
+                SearchContextPool.clearThread();
+                finished.countDown();
+            }
+        }
+
+        // Stops handing out queries; ones already running finish normally
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() { return cancelled && failure == null; }
+        public boolean isDone() { return finished.getCount() == 0; }
+        public int getCompletedCount() { return completed.get(); }
+
+        public List<PathResult> await() throws InterruptedException {
+            finished.await();
+            return collect();
+        }
+
+        public List<PathResult> await(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+            if (!finished.await(timeout, unit)) {
+                throw new TimeoutException(completed.get() + " of " + results.length + " queries done");
+            }
+            return collect();
+        }
+
+        private List<PathResult> collect() {
+            if (failure != null) {
+                throw new CompletionException(failure);
+            }
+            if (cancelled) {
+                throw new CancellationException(completed.get() + " of " + results.length + " queries done");
+            }
+            // The latch orders the workers' writes to results before this read
+            return Arrays.asList(results);
+        }
+    }
+
+    // Throughput at increasing parallelism, checked against a sequential run.
+    // Usage: java BatchPathfinder [size] [queries]
+    public static void main(String[] args) throws InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        double[][] heightMap = NoiseMapGenerator.generateHeightMap(size, size, 4.25, 42L);
+        GridGraph graph = new GridGraph(heightMap, GridGraph.StorageMode.FLAT_DOUBLE);
+
+        Random random = new Random(7);
+        List<PathQuery> queries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            queries.add(new PathQuery(graph.getNode(random.nextInt(size), random.nextInt(size)),
+                                      graph.getNode(random.nextInt(size), random.nextInt(size))));
+        }
+
+        PathfindingAlgorithm algorithm = new AStarPathfinder(new ManhattanHeuristic());
+        List<PathResult> expected = new BatchPathfinder(algorithm, Runnable::run, 1).findPaths(graph, queries);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                BatchPathfinder batch = new BatchPathfinder(algorithm, pool, threads);
+                long startTime = System.nanoTime();
+                List<PathResult> results = batch.findPaths(graph, queries);
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                for (int i = 0; i < count; i++) {
+                    if (results.get(i).getSimulatedTime() != expected.get(i).getSimulatedTime()) {
+                        throw new IllegalStateException("query " + i + " differs from the sequential run");
+                    }
+                }
+                double throughput = count / seconds;
+                if (threads == 1) {
+                    baseline = throughput;
+                }
+                System.out.printf("%2d threads: %8.0f queries/s (x%.2f)%n", threads, throughput, throughput / baseline);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -9,55 +9,51 @@ public class BestFirstPathfinder implements PathfindingAlgorithm {
 
     @Override
     public PathResult findPath(GridGraph graph, Node start, Node end) {
-        PriorityQueue<Node> openSet = new PriorityQueue<>(
-            Comparator.comparingDouble(n -> {
-                double baseHeuristic = heuristic.estimate(n, end);
-                double heightPenalty = Math.abs(n.getHeight() - end.getHeight()) * 3.0; // Triple the height penalty
-                return baseHeuristic + heightPenalty;
-            })
-        );
-        
-        Set<Node> closedSet = new HashSet<>();
-        Map<Node, Node> cameFrom = new HashMap<>();
-        Map<Node, Double> costSoFar = new HashMap<>();
-
-        openSet.add(start);
-        costSoFar.put(start, 0.0);
-
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
-            
-            if (current.equals(end)) {
-                break;
-            }
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            IndexedMinHeap openSet = context.getOpenSet();
+            int directions = graph.getDirectionCount();
 
-            if (closedSet.contains(current)) {
-                continue;  // Skip if we've already processed this node
-            }
+            openSet.insertOrDecrease(source, priority(graph, context, source, target));
+            context.setCost(source, 0.0, -1);
 
-            closedSet.add(current);
+            while (!openSet.isEmpty()) {
+                int current = openSet.poll();
 
-            for (Node next : graph.getNeighbors(current)) {
-                if (closedSet.contains(next)) {
-                    continue;
+                if (current == target) {
+                    break;
                 }
 
-                double newCost = costSoFar.get(current) + graph.getCost(current, next);
-                if (!costSoFar.containsKey(next) || newCost < costSoFar.get(next)) {
-                    costSoFar.put(next, newCost);
-                    cameFrom.put(next, current);
-                    openSet.add(next);
+                context.close(current);
+
+                double currentCost = context.getCost(current);
+                for (int dir = 0; dir < directions; dir++) {
+                    int next = graph.getNeighborIndex(current, dir);
+                    if (next < 0 || context.isClosed(next)) {
+                        continue;
+                    }
+
+                    double newCost = currentCost + context.edgeCost(graph, current, dir);
+                    if (newCost < context.getCost(next)) {
+                        context.setCost(next, newCost, current);
+                        // Priority doesn't depend on cost, so a queued cell keeps its place
+                        openSet.insertOrDecrease(next, priority(graph, context, next, target));
+                    }
                 }
             }
-        }
 
-        List<Node> path = new ArrayList<>();
-        Node current = end;
-        while (current != null) {
-            path.add(0, current);
-            current = cameFrom.get(current);
+            return SearchStats.report(this, new PathResult(graph, context.pathCells(source, target),
+                                                           context.getCost(target), context.getStats()));
+        } finally {
+            SearchContextPool.release(context);
         }
+    }
 
-        return new PathResult(path, costSoFar.getOrDefault(end, Double.POSITIVE_INFINITY));
+    private double priority(GridGraph graph, SearchContext context, int cell, int target) {
+        double baseHeuristic = context.estimate(heuristic, graph, cell, target);
+        double heightPenalty = Math.abs(graph.getHeight(cell) - graph.getHeight(target)) * 3.0; // Triple the height penalty
+        return baseHeuristic + heightPenalty;
     }
-}
\ No newline at end of file
+}
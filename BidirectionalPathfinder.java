@@ -0,0 +1,118 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Searches forward from start and backward from end at the same time and
+// stops once the two frontiers prove the best meeting point can't improve.
+//
+// The backward search walks edges against their direction: from u it looks
+// at every v with an edge v -> u and pays getCost(v, u), so uphill/downhill
+// asymmetry is respected. mu is the cheapest start-end path seen so far
+// through a cell reached by both sides; the search stops once
+// top key forward + top key backward >= mu.
+//
+// With a heuristic the two sides share the average potential
+//   p(v) = (h(v, end) - h(start, v)) / 2
+// (forward keys g + p, backward keys g - p). That keeps both sides
+// consistent with each other, so the Dijkstra stopping rule above stays
+// exact; plain A* keys on both sides would need the far weaker rule
+// max(top forward, top backward) >= mu.
+public class BidirectionalPathfinder implements PathfindingAlgorithm {
+    private final Heuristic heuristic; // null: bidirectional Dijkstra
+
+    public BidirectionalPathfinder() {
+        this(null);
+    }
+
+    public BidirectionalPathfinder(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        SearchContext forward = SearchContextPool.borrow(graph);
+        SearchContext backward = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            int meet = search(graph, forward, backward, source, target);
+            SearchStats stats = forward.getStats().plus(backward.getStats());
+            if (meet < 0) {
+                return SearchStats.report(this, new PathResult(List.of(), Double.POSITIVE_INFINITY, stats));
+            }
+
+            // start .. meet from the forward tree, then meet .. end from the backward one
+            int[] head = forward.pathCells(source, meet);
+            int length = head.length;
+            for (int cell = backward.getParent(meet); cell >= 0; cell = backward.getParent(cell)) {
+                length++;
+            }
+            int[] path = Arrays.copyOf(head, length);
+            int k = head.length;
+            for (int cell = backward.getParent(meet); cell >= 0; cell = backward.getParent(cell)) {
+                path[k++] = cell;
+            }
+            double cost = forward.getCost(meet) + backward.getCost(meet);
+            return SearchStats.report(this, new PathResult(graph, path, cost, stats));
+        } finally {
+            SearchContextPool.release(backward);
+            SearchContextPool.release(forward);
+        }
+    }
+
+    // Returns the cell where the best forward and backward paths join, or -1
+    private int search(GridGraph graph, SearchContext forward, SearchContext backward, int source, int target) {
+        IndexedMinHeap forwardOpen = forward.getOpenSet();
+        IndexedMinHeap backwardOpen = backward.getOpenSet();
+        int directions = graph.getDirectionCount();
+
+        forward.setCost(source, 0, -1);
+        forwardOpen.insertOrDecrease(source, potential(graph, forward, source, source, target));
+        backward.setCost(target, 0, -1);
+        backwardOpen.insertOrDecrease(target, -potential(graph, backward, target, source, target));
+
+        double best = source == target ? 0 : Double.POSITIVE_INFINITY;
+        int meet = source == target ? source : -1;
+
+        while (!forwardOpen.isEmpty() && !backwardOpen.isEmpty()) {
+            double forwardTop = forwardOpen.peekKey();
+            double backwardTop = backwardOpen.peekKey();
+            if (forwardTop + backwardTop >= best) {
+                break;
+            }
+
+            // Expand the smaller frontier
+            boolean isForward = forwardOpen.size() <= backwardOpen.size();
+            SearchContext self = isForward ? forward : backward;
+            SearchContext other = isForward ? backward : forward;
+            int current = self.getOpenSet().poll();
+            self.close(current);
+            double g = self.getCost(current);
+
+            for (int dir = 0; dir < directions; dir++) {
+                int next = isForward ? graph.getNeighborIndex(current, dir) : graph.getPredecessorIndex(current, dir);
+                if (next < 0 || self.isClosed(next)) {
+                    continue;
+                }
+                double tentative = g + (isForward ? self.edgeCost(graph, current, dir) : self.incomingEdgeCost(graph, current, dir));
+                if (tentative < self.getCost(next)) {
+                    self.setCost(next, tentative, current);
+                    double p = potential(graph, self, next, source, target);
+                    self.getOpenSet().insertOrDecrease(next, tentative + (isForward ? p : -p));
+                }
+                double through = self.getCost(next) + other.getCost(next);
+                if (through < best) {
+                    best = through;
+                    meet = next;
+                }
+            }
+        }
+        return meet;
+    }
+
+    private double potential(GridGraph graph, SearchContext context, int cell, int source, int target) {
+        if (heuristic == null) {
+            return 0;
+        }
+        return (context.estimate(heuristic, graph, cell, target) - context.estimate(heuristic, graph, source, cell)) / 2;
+    }
+}
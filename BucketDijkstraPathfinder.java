@@ -0,0 +1,95 @@
+// Dijkstra on a BucketQueue (Dial's algorithm) instead of a binary heap.
+// Every edge costs at least the cost model's getMinStepCost(), so a bucket
+// that wide never holds a cell that another cell of the same bucket could
+// still improve: all cells of the lowest bucket are final, in any order, and
+// the search stays exact without the heap's O(log n) per operation.
+//
+// With a quantum q the search instead runs on edge costs rounded to the
+// nearest multiple of q, one bucket per multiple. Each edge is then off by at
+// most q/2, so the path found, P', costs at most
+//   cost(P*) + (|P*| + |P'|) * q / 2
+// where P* is a cheapest path and |P| counts a path's moves. The reported cost
+// is P''s real cost. Quantizing only pays off with fewer buckets than the
+// exact search, i.e. q above getMinStepCost(), and edges cheaper than q / 2
+// then round to 0, so on most terrain the exact search is the better choice.
+public class BucketDijkstraPathfinder implements PathfindingAlgorithm {
+    // Exact buckets are a hair narrower than the cheapest edge, so that
+    // rounding can't put an edge's two ends in the same bucket
+    private static final double EXACT_WIDTH = 1 - 1e-9;
+
+    private final double quantum;
+
+    // Exact
+    public BucketDijkstraPathfinder() {
+        this.quantum = 0;
+    }
+
+    public BucketDijkstraPathfinder(double quantum) {
+        if (!(quantum > 0) || Double.isInfinite(quantum)) {
+            throw new IllegalArgumentException("quantum must be positive and finite");
+        }
+        this.quantum = quantum;
+    }
+
+    public boolean isExact() { return quantum == 0; }
+    public double getQuantum() { return quantum; }
+
+    // Most a path found with this quantum can cost above the cheapest one,
+    // given both paths' move counts
+    public double getErrorBound(int optimalMoves, int foundMoves) {
+        return (optimalMoves + foundMoves) * quantum / 2;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            BucketQueue queue = context.getBucketQueue();
+            int directions = graph.getDirectionCount();
+            double width = graph.getMinStepCost() * EXACT_WIDTH;
+
+            context.setCost(source, 0.0, -1);
+            queue.insertOrDecrease(source, 0);
+
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                long bucket = queue.getPolledKey();
+
+                if (u == target) {
+                    break;
+                }
+                context.close(u);
+
+                double du = context.getCost(u);
+                for (int dir = 0; dir < directions; dir++) {
+                    int v = graph.getNeighborIndex(u, dir);
+                    if (v < 0 || context.isClosed(v)) {
+                        continue;
+                    }
+                    double cost = context.edgeCost(graph, u, dir);
+                    if (cost == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    double alt = du + cost;
+                    if (quantum == 0) {
+                        if (alt < context.getCost(v)) {
+                            context.setCost(v, alt, u);
+                            queue.insertOrDecrease(v, (long) (alt / width));
+                        }
+                    } else if (queue.insertOrDecrease(v, bucket + Math.round(cost / quantum))) {
+                        // Ordered by rounded cost; the real cost rides along
+                        context.setCost(v, alt, u);
+                    }
+                }
+            }
+
+            int[] path = context.pathCells(source, target);
+            double simulatedTime = context.getCost(target);
+            return SearchStats.report(this, new PathResult(graph, path, simulatedTime, context.getStats()));
+        } finally {
+            SearchContextPool.release(context);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+// Monotone priority queue over int ids in [0, capacity) with integer keys
+// (Dial's buckets): one doubly linked list of ids per key, kept in a ring of
+// buckets that covers every queued key from the last polled one up. Insert,
+// decrease-key and removal are O(1); poll skips empty buckets, which costs
+// O(largest key gap) per poll instead of O(log n).
+//
+// Keys are non-negative and must never drop below the last key polled,
+// which holds for Dijkstra with non-negative integer edge costs. Within a
+// bucket ids come out in no particular order. The ring doubles when a key
+// lands beyond its end, so it ends up a little bigger than (largest edge
+// cost + 1) buckets.
+public class BucketQueue {
+    private static final int INITIAL_BUCKETS = 64;
+    private static final int MAX_BUCKETS = 1 << 28;
+    private static final long ABSENT = -1;
+
+    private int[] head;   // first id of each bucket, -1 if empty
+    private int mask;     // head.length - 1
+    private int[] next;
+    private int[] prev;
+    private long[] keys;  // ABSENT for ids not queued
+    private long cursor;  // the last key polled; no queued key is below it
+    private int size;
+    // Work counters since the last clear()
+    private int pushes;
+    private int decreases;
+    private int pops;
+    private int peakSize;
+
+    public BucketQueue(int capacity) {
+        head = new int[INITIAL_BUCKETS];
+        Arrays.fill(head, -1);
+        mask = INITIAL_BUCKETS - 1;
+        next = new int[capacity];
+        prev = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(keys, ABSENT);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int id) { return keys[id] != ABSENT; }
+    public long getKey(int id) { return keys[id]; }
+    public int getBucketCount() { return head.length; }
+    // Key of the id poll() returned last
+    public long getPolledKey() { return cursor; }
+
+    public int getPushCount() { return pushes; }
+    public int getDecreaseCount() { return decreases; }
+    public int getPollCount() { return pops; }
+    public int getPeakSize() { return peakSize; }
+
+    // Adds id, or lowers its key if it is already queued with a larger one.
+    // Returns false when the id was queued with a key <= the given one.
+    public boolean insertOrDecrease(int id, long key) {
+        if (key < cursor) {
+            throw new IllegalArgumentException("Key " + key + " is below the last polled key " + cursor);
+        }
+        if (keys[id] != ABSENT && key >= keys[id]) {
+            return false;
+        }
+        if (key - cursor > mask) {
+            grow(key - cursor + 1);
+        }
+        if (keys[id] != ABSENT) {
+            unlink(id);
+            decreases++;
+        } else {
+            pushes++;
+            if (++size > peakSize) {
+                peakSize = size;
+            }
+        }
+        link(id, key);
+        return true;
+    }
+
+    // Some id with the smallest key
+    public int poll() {
+        while (head[(int) cursor & mask] < 0) {
+            cursor++;
+        }
+        int id = head[(int) cursor & mask];
+        unlink(id);
+        keys[id] = ABSENT;
+        size--;
+        pops++;
+        return id;
+    }
+
+    // O(buckets + size), not O(capacity)
+    public void clear() {
+        for (int b = 0; b < head.length; b++) {
+            for (int id = head[b]; id >= 0; id = next[id]) {
+                keys[id] = ABSENT;
+            }
+            head[b] = -1;
+        }
+        size = 0;
+        cursor = 0;
+        pushes = 0;
+        decreases = 0;
+        pops = 0;
+        peakSize = 0;
+    }
+
+    private void link(int id, long key) {
+        int b = (int) key & mask;
+        keys[id] = key;
+        prev[id] = -1;
+        next[id] = head[b];
+        if (head[b] >= 0) {
+            prev[head[b]] = id;
+        }
+        head[b] = id;
+    }
+
+    private void unlink(int id) {
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            head[(int) keys[id] & mask] = next[id];
+        }
+        if (next[id] >= 0) {
+            prev[next[id]] = prev[id];
+        }
+    }
+
+    // Rebuilds the ring with room for span consecutive keys from the cursor
+    private void grow(long span) {
+        if (span > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Keys span " + span + " buckets; at most " + MAX_BUCKETS);
+        }
+        int[] old = head;
+        head = new int[Integer.highestOneBit((int) span - 1) << 1];
+        Arrays.fill(head, -1);
+        mask = head.length - 1;
+        for (int b = 0; b < old.length; b++) {
+            int id = old[b];
+            while (id >= 0) {
+                int following = next[id];
+                link(id, keys[id]);
+                id = following;
+            }
+        }
+    }
+}
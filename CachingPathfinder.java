@@ -0,0 +1,206 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decorator that remembers the last maxEntries answers of another
+// PathfindingAlgorithm, least recently used first out.
+//
+// With reuseSubPaths it also answers sub-path queries: every part of a
+// cheapest path is itself a cheapest path, so if a cached path passes
+// through start and later through end, the stretch between them is returned
+// without searching. That only holds if the wrapped algorithm returns
+// cheapest paths, so it is off unless asked for; leave it off for any
+// delegate that doesn't, e.g. BestFirst, BFS, HPA* (HierarchicalPathfinder)
+// or a quantized BucketDijkstraPathfinder. A sub-path lookup scans the
+// cached paths (a binary search in each), which is cheap next to a search
+// but grows with maxEntries.
+//
+// Every answer is reported to the SearchListener under this decorator. A
+// miss is reported by the delegate as well, just before, since it ran a
+// search of its own; per-algorithm totals keep the search work under the
+// delegate and count each query once under the cache.
+//
+// Entries remember GridGraph.getVersion() and are dropped once the graph's
+// heights change. Safe for concurrent queries if the wrapped algorithm is:
+// the cache is locked only to look up or add an entry, and two threads
+// missing the same query may both search it.
+public class CachingPathfinder implements PathfindingAlgorithm {
+    private final PathfindingAlgorithm delegate;
+    private final boolean reuseSubPaths;
+    private final Map<Key, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder subPathHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    // Exact repeats only
+    public CachingPathfinder(PathfindingAlgorithm delegate, int maxEntries) {
+        this(delegate, maxEntries, false);
+    }
+
+    public CachingPathfinder(PathfindingAlgorithm delegate, int maxEntries, boolean reuseSubPaths) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.delegate = delegate;
+        this.reuseSubPaths = reuseSubPaths;
+        this.cache = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Cached answers (hits and sub-path hits) come with empty SearchStats
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        int source = graph.getCellIndex(start);
+        int target = graph.getCellIndex(end);
+        Key key = new Key(graph, source, target);
+        long version = graph.getVersion();
+
+        PathResult cached = lookup(key, version);
+        if (cached != null) {
+            return SearchStats.report(this, cached);
+        }
+        misses.increment();
+        PathResult result = delegate.findPath(graph, start, end);
+        if (graph.getVersion() == version) {
+            Entry entry = new Entry(graph, version, result);
+            synchronized (cache) {
+                cache.put(key, entry);
+            }
+        }
+        return SearchStats.report(this, result);
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getSubPathHits() { return subPathHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getInvalidations() { return invalidations.sum(); }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private PathResult lookup(Key key, long version) {
+        synchronized (cache) {
+            Entry exact = cache.get(key);
+            if (exact != null) {
+                if (exact.version == version) {
+                    hits.increment();
+                    return new PathResult(exact.graph, exact.cells, exact.cost, SearchStats.EMPTY);
+                }
+                cache.remove(key);
+                invalidations.increment();
+            }
+            if (!reuseSubPaths) {
+                return null;
+            }
+            // Iterating doesn't count as access, so the LRU order is untouched
+            // until the entry that answers is looked up again below
+            for (Iterator<Map.Entry<Key, Entry>> it = cache.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Key, Entry> candidate = it.next();
+                Entry entry = candidate.getValue();
+                if (entry.graph != key.graph) {
+                    continue;
+                }
+                if (entry.version != version) {
+                    it.remove();
+                    invalidations.increment();
+                    continue;
+                }
+                PathResult part = entry.subPath(key.source, key.target);
+                if (part != null) {
+                    cache.get(candidate.getKey());
+                    subPathHits.increment();
+                    return part;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Key {
+        final GridGraph graph;
+        final int source;
+        final int target;
+
+        Key(GridGraph graph, int source, int target) {
+            this.graph = graph;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return graph == other.graph && source == other.source && target == other.target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(graph), source, target);
+        }
+    }
+
+    private static final class Entry {
+        final GridGraph graph;
+        final long version;
+        final int[] cells; // shared by the results handed out; never modified
+        final double cost;
+        final long[] cellAt;    // sorted (cell << 32 | position along the path)
+        final double[] costTo;  // cost from the path's first cell to each position
+
+        Entry(GridGraph graph, long version, PathResult result) {
+            this.graph = graph;
+            this.version = version;
+            this.cells = result.getCells(graph).clone();
+            this.cost = result.getSimulatedTime();
+            cellAt = new long[cells.length];
+            costTo = new double[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                cellAt[i] = (long) cells[i] << 32 | i;
+                costTo[i] = i == 0 ? 0 : costTo[i - 1] + graph.getCost(cells[i - 1], cells[i]);
+            }
+            Arrays.sort(cellAt);
+        }
+
+        // The stretch of this path from source to a later target, or null
+        PathResult subPath(int source, int target) {
+            int from = position(source);
+            int to = from < 0 ? -1 : position(target);
+            if (from < 0 || to < from) {
+                return null;
+            }
+            return new PathResult(graph, Arrays.copyOfRange(cells, from, to + 1), costTo[to] - costTo[from],
+                                  SearchStats.EMPTY);
+        }
+
+        private int position(int cell) {
+            int i = Arrays.binarySearch(cellAt, (long) cell << 32);
+            i = i < 0 ? -i - 1 : i;
+            return i < cellAt.length && (int) (cellAt[i] >>> 32) == cell ? (int) cellAt[i] : -1;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Abstract graph for hierarchical pathfinding (HPA*). The grid is cut into
+// clusterSize x clusterSize clusters. Where two clusters touch, a few
+// transition cell pairs are picked along the shared border; both cells
+// become abstract nodes. Abstract edges are directed, because getCost isn't
+// symmetric:
+//  - inter edges cross a border: a -> b costs getCost(a, b), b -> a getCost(b, a)
+//  - intra edges join nodes of one cluster with the cheapest cost between
+//    them that stays inside the cluster, computed once here
+// Transitions are straight steps across a border. On 8- and 16-connected
+// graphs moves that cross a border diagonally aren't in the abstract graph,
+// so paths stay valid but can cost a little more.
+// Immutable once built, so one abstraction can serve concurrent queries.
+// Reflects the heights at build time; rebuild it after GridGraph.setHeight.
+public class ClusterAbstraction {
+    private final GridGraph graph;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+
+    private final int[] nodeCell;       // abstract node -> grid cell
+    private final int[] nodeSlot;       // abstract node -> index in its cluster's node list
+    private final int[][] clusterNodes; // cluster -> its abstract nodes
+    private final int[][] edgeTarget;   // abstract node -> successors
+    private final double[][] edgeCost;
+
+    private ClusterAbstraction(GridGraph graph, int clusterSize, int[] nodeCell, int[][] clusterNodes,
+                               int[][] edgeTarget, double[][] edgeCost) {
+        this.graph = graph;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (graph.getRows() + clusterSize - 1) / clusterSize;
+        this.clusterCols = (graph.getCols() + clusterSize - 1) / clusterSize;
+        this.nodeCell = nodeCell;
+        this.clusterNodes = clusterNodes;
+        this.edgeTarget = edgeTarget;
+        this.edgeCost = edgeCost;
+        this.nodeSlot = new int[nodeCell.length];
+        for (int[] nodes : clusterNodes) {
+            for (int i = 0; i < nodes.length; i++) {
+                nodeSlot[nodes[i]] = i;
+            }
+        }
+    }
+
+    // transitionsPerEntrance cells are spread evenly along each shared border;
+    // more of them give better paths at the price of a bigger abstract graph.
+    // Intra-cluster costs are computed in parallel, one cluster per task.
+    public static ClusterAbstraction build(GridGraph graph, int clusterSize, int transitionsPerEntrance) {
+        if (clusterSize < 2 || transitionsPerEntrance < 1) {
+            throw new IllegalArgumentException("clusterSize must be >= 2 and transitionsPerEntrance >= 1");
+        }
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        int clusterRows = (rows + clusterSize - 1) / clusterSize;
+        int clusterCols = (cols + clusterSize - 1) / clusterSize;
+
+        Map<Integer, Integer> nodeOfCell = new HashMap<>();
+        List<Integer> cells = new ArrayList<>();
+        List<List<double[]>> interEdges = new ArrayList<>(); // per node: {target, cost}
+
+        for (int cr = 0; cr < clusterRows; cr++) {
+            for (int cc = 0; cc < clusterCols; cc++) {
+                int r0 = cr * clusterSize;
+                int r1 = Math.min(rows, r0 + clusterSize) - 1;
+                int c0 = cc * clusterSize;
+                int c1 = Math.min(cols, c0 + clusterSize) - 1;
+                // Border with the cluster to the right
+                if (c1 + 1 < cols) {
+                    for (int r : spread(r0, r1, transitionsPerEntrance)) {
+                        addTransition(graph, graph.getCellIndex(r, c1), graph.getCellIndex(r, c1 + 1),
+                                      nodeOfCell, cells, interEdges);
+                    }
+                }
+                // Border with the cluster below
+                if (r1 + 1 < rows) {
+                    for (int c : spread(c0, c1, transitionsPerEntrance)) {
+                        addTransition(graph, graph.getCellIndex(r1, c), graph.getCellIndex(r1 + 1, c),
+                                      nodeOfCell, cells, interEdges);
+                    }
+                }
+            }
+        }
+
+        int nodeCount = cells.size();
+        int[] nodeCell = new int[nodeCount];
+        List<List<Integer>> byCluster = new ArrayList<>();
+        for (int i = 0; i < clusterRows * clusterCols; i++) {
+            byCluster.add(new ArrayList<>());
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            nodeCell[node] = cells.get(node);
+            int r = graph.getRow(nodeCell[node]);
+            int c = graph.getCol(nodeCell[node]);
+            byCluster.get((r / clusterSize) * clusterCols + c / clusterSize).add(node);
+        }
+        int[][] clusterNodes = new int[byCluster.size()][];
+        for (int i = 0; i < clusterNodes.length; i++) {
+            clusterNodes[i] = byCluster.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[][] edgeTarget = new int[nodeCount][];
+        double[][] edgeCost = new double[nodeCount][];
+        ClusterAbstraction abstraction =
+            new ClusterAbstraction(graph, clusterSize, nodeCell, clusterNodes, edgeTarget, edgeCost);
+
+        // Every node belongs to exactly one cluster, so tasks write disjoint rows
+        IntStream.range(0, clusterNodes.length).parallel().forEach(cluster -> {
+            int[] nodes = clusterNodes[cluster];
+            SearchContext context = SearchContextPool.borrow(clusterSize, clusterSize);
+            try {
+                for (int from : nodes) {
+                    abstraction.searchCluster(context, cluster, nodeCell[from], -1, false, null);
+                    List<double[]> inter = interEdges.get(from);
+                    int[] targets = new int[inter.size() + nodes.length - 1];
+                    double[] costs = new double[targets.length];
+                    int count = 0;
+                    for (double[] edge : inter) {
+                        targets[count] = (int) edge[0];
+                        costs[count++] = edge[1];
+                    }
+                    for (int to : nodes) {
+                        double cost = context.getCost(abstraction.localIndex(cluster, nodeCell[to]));
+                        if (to != from && cost < Double.POSITIVE_INFINITY) {
+                            targets[count] = to;
+                            costs[count++] = cost;
+                        }
+                    }
+                    edgeTarget[from] = Arrays.copyOf(targets, count);
+                    edgeCost[from] = Arrays.copyOf(costs, count);
+                }
+            } finally {
+                SearchContextPool.release(context);
+            }
+        });
+        return abstraction;
+    }
+
+    private static int[] spread(int lo, int hi, int count) {
+        if (count == 1 || lo == hi) {
+            return new int[] {(lo + hi) / 2};
+        }
+        return IntStream.range(0, count)
+            .map(i -> lo + (int) ((long) i * (hi - lo) / (count - 1)))
+            .distinct()
+            .toArray();
+    }
+
+    private static void addTransition(GridGraph graph, int a, int b, Map<Integer, Integer> nodeOfCell,
+                                      List<Integer> cells, List<List<double[]>> interEdges) {
+        int nodeA = nodeFor(a, nodeOfCell, cells, interEdges);
+        int nodeB = nodeFor(b, nodeOfCell, cells, interEdges);
+        interEdges.get(nodeA).add(new double[] {nodeB, graph.getCost(a, b)});
+        interEdges.get(nodeB).add(new double[] {nodeA, graph.getCost(b, a)});
+    }
+
+    private static int nodeFor(int cell, Map<Integer, Integer> nodeOfCell, List<Integer> cells,
+                               List<List<double[]>> interEdges) {
+        return nodeOfCell.computeIfAbsent(cell, k -> {
+            cells.add(cell);
+            interEdges.add(new ArrayList<>());
+            return cells.size() - 1;
+        });
+    }
+
+    public GridGraph getGraph() { return graph; }
+    public int getClusterSize() { return clusterSize; }
+    public int getNodeCount() { return nodeCell.length; }
+    public int getClusterCount() { return clusterNodes.length; }
+
+    public int getNodeCell(int node) { return nodeCell[node]; }
+    public int getNodeSlot(int node) { return nodeSlot[node]; }
+    public int[] getClusterNodes(int cluster) { return clusterNodes[cluster]; }
+    public int[] getEdgeTargets(int node) { return edgeTarget[node]; }
+    public double[] getEdgeCosts(int node) { return edgeCost[node]; }
+
+    public int getCluster(int cell) {
+        return (graph.getRow(cell) / clusterSize) * clusterCols + graph.getCol(cell) / clusterSize;
+    }
+
+    public int getNodeCluster(int node) {
+        return getCluster(nodeCell[node]);
+    }
+
+    // Index of a cell inside its cluster, for contexts borrowed at clusterSize x clusterSize
+    public int localIndex(int cluster, int cell) {
+        int r0 = (cluster / clusterCols) * clusterSize;
+        int c0 = (cluster % clusterCols) * clusterSize;
+        return (graph.getRow(cell) - r0) * clusterSize + (graph.getCol(cell) - c0);
+    }
+
+    // Dijkstra (heuristic == null) or A* from source that never leaves the
+    // cluster. With reverse set, edges are followed backwards so the costs are
+    // those of reaching source. Stops when target is settled (target = -1 runs
+    // to exhaustion). Results stay in context, indexed by localIndex.
+    public double searchCluster(SearchContext context, int cluster, int source, int target,
+                                boolean reverse, Heuristic heuristic) {
+        int r0 = (cluster / clusterCols) * clusterSize;
+        int c0 = (cluster % clusterCols) * clusterSize;
+        int r1 = Math.min(graph.getRows(), r0 + clusterSize) - 1;
+        int c1 = Math.min(graph.getCols(), c0 + clusterSize) - 1;
+        int directions = graph.getDirectionCount();
+
+        context.begin();
+        IndexedMinHeap openSet = context.getOpenSet();
+        int sourceLocal = localIndex(cluster, source);
+        context.setCost(sourceLocal, 0, -1);
+        openSet.insertOrDecrease(sourceLocal, 0);
+
+        while (!openSet.isEmpty()) {
+            int currentLocal = openSet.poll();
+            int current = graph.getCellIndex(r0 + currentLocal / clusterSize, c0 + currentLocal % clusterSize);
+            if (current == target) {
+                return context.getCost(currentLocal);
+            }
+            context.close(currentLocal);
+
+            double g = context.getCost(currentLocal);
+            for (int dir = 0; dir < directions; dir++) {
+                int next = reverse ? graph.getPredecessorIndex(current, dir) : graph.getNeighborIndex(current, dir);
+                if (next < 0) {
+                    continue;
+                }
+                int r = graph.getRow(next);
+                int c = graph.getCol(next);
+                if (r < r0 || r > r1 || c < c0 || c > c1) {
+                    continue;
+                }
+                int nextLocal = (r - r0) * clusterSize + (c - c0);
+                if (context.isClosed(nextLocal)) {
+                    continue;
+                }
+                double tentative = g + (reverse ? context.incomingEdgeCost(graph, current, dir) : context.edgeCost(graph, current, dir));
+                if (tentative < context.getCost(nextLocal)) {
+                    context.setCost(nextLocal, tentative, currentLocal);
+                    double h = heuristic == null ? 0 : context.estimate(heuristic, graph, next, target);
+                    openSet.insertOrDecrease(nextLocal, tentative + h);
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    // Grid cell of a local index, the inverse of localIndex
+    public int cellOf(int cluster, int local) {
+        int r0 = (cluster / clusterCols) * clusterSize;
+        int c0 = (cluster % clusterCols) * clusterSize;
+        return graph.getCellIndex(r0 + local / clusterSize, c0 + local % clusterSize);
+    }
+}
@@ -0,0 +1,573 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Side-by-side experiments for the alternative search strategies.
+// Usage: java -Xmx3g ComparisonRunner <experiment> [sizes...]
+//   hpa   hierarchical (HPA*) vs flat A* on long cross-map queries
+//   jps   flat-region jumping vs Dijkstra and A* on terraced terrain
+//   bidi  bidirectional vs unidirectional Dijkstra and A*
+//   alt   landmark (ALT) and cost-model heuristics vs Manhattan for A*
+//   costs precomputed per-direction edge costs vs asking the cost model per relaxation
+//   noise parallel hashed Diamond-Square vs the original generator, by thread count
+//   tiles sparse A* on a generated world too big for memory, by tile cache size
+//   replan D* Lite repairs vs fresh A* runs while an agent walks and terrain changes
+//   cache  repeated and mid-route queries with and without a CachingPathfinder
+//   many  one depot to many destinations: one findAll vs a findPath per target
+//   connect 4-, 8- and 16-connected moves on the same terrain, with and without corner rules
+//   buckets Dijkstra on a bucket queue, exact and with quantized costs, vs the binary heap
+public class ComparisonRunner {
+    private static final double MAX_HEIGHT = 100.0;
+    private static final int QUERIES = 10;
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java ComparisonRunner <hpa|jps|bidi|alt|costs|noise|tiles|replan|cache|many|connect|buckets> [sizes...]");
+            return;
+        }
+        int[] sizes = Arrays.stream(args).skip(1).mapToInt(Integer::parseInt).toArray();
+        switch (args[0]) {
+            case "hpa":
+                compareHierarchical(sizes.length > 0 ? sizes : new int[] {1024, 2048, 4096});
+                break;
+            case "jps":
+                compareJumpPoint(sizes.length > 0 ? sizes : new int[] {256, 512, 1024});
+                break;
+            case "bidi":
+                compareBidirectional(sizes.length > 0 ? sizes : new int[] {500, 1000, 2000});
+                break;
+            case "alt":
+                compareLandmarks(sizes.length > 0 ? sizes : new int[] {500, 1000, 2000});
+                break;
+            case "noise":
+                compareNoise(sizes.length > 0 ? sizes : new int[] {1000, 2000, 5000});
+                break;
+            case "costs":
+                compareEdgeCosts(sizes.length > 0 ? sizes : new int[] {1000, 2000, 4000});
+                break;
+            case "tiles":
+                compareTiles(sizes.length > 0 ? sizes : new int[] {100000});
+                break;
+            case "replan":
+                compareReplanning(sizes.length > 0 ? sizes : new int[] {500, 1000});
+                break;
+            case "cache":
+                compareCaching(sizes.length > 0 ? sizes : new int[] {500, 1000});
+                break;
+            case "many":
+                compareOneToMany(sizes.length > 0 ? sizes : new int[] {500, 1000});
+                break;
+            case "connect":
+                compareConnectivity(sizes.length > 0 ? sizes : new int[] {500, 1000});
+                break;
+            case "buckets":
+                compareBuckets(sizes.length > 0 ? sizes : new int[] {1000, 2000, 4000});
+                break;
+            default:
+                System.out.println("Unknown experiment: " + args[0]);
+        }
+    }
+
+    static GridGraph terrain(int rows, int cols, long seed) {
+        return terraced(rows, cols, seed, 0);
+    }
+
+    // Heights rounded down to multiples of step, which turns slopes into
+    // plateaus the way flattened map areas do; step 0 keeps the raw terrain
+    static GridGraph terraced(int rows, int cols, long seed, double step) {
+        return new GridGraph(heights(rows, cols, seed, step), GridGraph.StorageMode.FLAT_DOUBLE);
+    }
+
+    static double[][] heights(int rows, int cols, long seed, double step) {
+        double[][] heightMap = NoiseMapGenerator.generateHeightMap(rows, cols, 4.25, seed);
+        for (double[] row : heightMap) {
+            for (int c = 0; c < cols; c++) {
+                row[c] *= MAX_HEIGHT;
+                if (step > 0) {
+                    row[c] = Math.floor(row[c] / step) * step;
+                }
+            }
+        }
+        return heightMap;
+    }
+
+    // Start in the top-left quarter, end in the bottom-right one
+    static Node[][] crossMapQueries(GridGraph graph, int count, long seed) {
+        Random random = new Random(seed);
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        Node[][] queries = new Node[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new Node[] {
+                graph.getNode(random.nextInt(rows / 4), random.nextInt(cols / 4)),
+                graph.getNode(rows - 1 - random.nextInt(rows / 4), cols - 1 - random.nextInt(cols / 4))
+            };
+        }
+        return queries;
+    }
+
+    // Average latency in ms, expanded nodes and path cost over the queries,
+    // after one untimed warmup query
+    static double[] measure(PathfindingAlgorithm algorithm, GridGraph graph, Node[][] queries) {
+        algorithm.findPath(graph, queries[0][0], queries[0][1]);
+        long nanos = 0;
+        double expanded = 0;
+        double cost = 0;
+        for (Node[] query : queries) {
+            long startTime = System.nanoTime();
+            PathResult result = algorithm.findPath(graph, query[0], query[1]);
+            nanos += System.nanoTime() - startTime;
+            expanded += result.getExpandedNodes();
+            cost += result.getSimulatedTime();
+        }
+        return new double[] {nanos / 1e6 / queries.length, expanded / queries.length, cost / queries.length};
+    }
+
+    static void compareHierarchical(int[] sizes) {
+        System.out.printf("%-6s %-10s %10s %12s %12s %10s%n", "size", "algorithm", "build ms", "latency ms", "expanded", "cost +%");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            Node[][] queries = crossMapQueries(graph, QUERIES, 7L);
+            double[] flat = measure(new AStarPathfinder(new ManhattanHeuristic()), graph, queries);
+            System.out.printf("%-6d %-10s %10s %12.2f %12.0f %10s%n", size, "A*", "-", flat[0], flat[1], "-");
+            SearchContextPool.clearThread(); // drop the full-grid context before the next run
+
+            long buildStart = System.nanoTime();
+            ClusterAbstraction abstraction = ClusterAbstraction.build(graph, 32, 3);
+            double buildMs = (System.nanoTime() - buildStart) / 1e6;
+            double[] hpa = measure(new HierarchicalPathfinder(abstraction, new ManhattanHeuristic()), graph, queries);
+            System.out.printf("%-6d %-10s %10.0f %12.2f %12.0f %10.2f%n", size, "HPA*", buildMs, hpa[0], hpa[1],
+                              (hpa[2] / flat[2] - 1) * 100);
+        }
+    }
+
+    static void compareJumpPoint(int[] sizes) {
+        System.out.printf("%-6s %-10s %12s %12s %12s%n", "size", "algorithm", "latency ms", "expanded", "cost");
+        for (int size : sizes) {
+            GridGraph graph = terraced(size, size, 42L, 10.0);
+            Node[][] queries = crossMapQueries(graph, QUERIES, 7L);
+            JumpPointPathfinder jump = new JumpPointPathfinder(new ManhattanHeuristic());
+            System.out.printf("%-6d %.0f%% of cells in flat rectangles%n", size, jump.getCoverage(graph) * 100);
+
+            String[] names = {"Dijkstra", "A*", "Jump"};
+            PathfindingAlgorithm[] algorithms = {
+                new DijkstraPathfinder(), new AStarPathfinder(new ManhattanHeuristic()), jump
+            };
+            for (int i = 0; i < algorithms.length; i++) {
+                double[] m = measure(algorithms[i], graph, queries);
+                System.out.printf("%-6d %-10s %12.2f %12.0f %12.3f%n", size, names[i], m[0], m[1], m[2]);
+            }
+        }
+    }
+
+    static void compareBidirectional(int[] sizes) {
+        System.out.printf("%-6s %-10s %12s %12s %12s%n", "size", "algorithm", "latency ms", "expanded", "cost");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            // Main's corner-to-corner query followed by the cross-map ones
+            Node[][] queries = crossMapQueries(graph, QUERIES, 7L);
+            queries[0] = new Node[] {graph.getNode(0, 0), graph.getNode(size - 1, size - 1)};
+
+            String[] names = {"Dijkstra", "Bi-Dijk", "A*", "Bi-A*"};
+            PathfindingAlgorithm[] algorithms = {
+                new DijkstraPathfinder(), new BidirectionalPathfinder(),
+                new AStarPathfinder(new ManhattanHeuristic()), new BidirectionalPathfinder(new ManhattanHeuristic())
+            };
+            for (int i = 0; i < algorithms.length; i++) {
+                double[] m = measure(algorithms[i], graph, queries);
+                System.out.printf("%-6d %-10s %12.2f %12.0f %12.3f%n", size, names[i], m[0], m[1], m[2]);
+            }
+        }
+    }
+
+    static void compareLandmarks(int[] sizes) {
+        System.out.printf("%-6s %-10s %10s %12s %12s %12s%n", "size", "heuristic", "build ms", "latency ms", "expanded", "cost");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            Node[][] queries = crossMapQueries(graph, QUERIES, 7L);
+            double[] manhattan = measure(new AStarPathfinder(new ManhattanHeuristic()), graph, queries);
+            System.out.printf("%-6d %-10s %10s %12.2f %12.0f %12.3f%n", size, "Manhattan", "-",
+                              manhattan[0], manhattan[1], manhattan[2]);
+            double[] costModel = measure(new AStarPathfinder(new CostModelHeuristic(graph)), graph, queries);
+            System.out.printf("%-6d %-10s %10s %12.2f %12.0f %12.3f%n", size, "CostModel", "-",
+                              costModel[0], costModel[1], costModel[2]);
+
+            for (int landmarks : new int[] {4, 8, 16}) {
+                long buildStart = System.nanoTime();
+                LandmarkHeuristic alt = new LandmarkHeuristic(graph, landmarks);
+                double buildMs = (System.nanoTime() - buildStart) / 1e6;
+                double[] m = measure(new AStarPathfinder(alt), graph, queries);
+                System.out.printf("%-6d %-10s %10.0f %12.2f %12.0f %12.3f%n", size, "ALT-" + landmarks, buildMs,
+                                  m[0], m[1], m[2]);
+            }
+        }
+    }
+
+    static void compareEdgeCosts(int[] sizes) {
+        System.out.printf("%-6s %-10s %-10s %10s %12s %12s%n", "size", "costs", "algorithm", "build ms", "latency ms", "cost");
+        for (int size : sizes) {
+            GridGraph terrain = terrain(size, size, 42L);
+            Node[][] queries = crossMapQueries(terrain, QUERIES, 7L);
+            for (boolean precompute : new boolean[] {false, true}) {
+                long buildStart = System.nanoTime();
+                GridGraph graph = new GridGraph(terrain.getHeightField(), SlopeCostModel.DEFAULT, precompute);
+                double buildMs = (System.nanoTime() - buildStart) / 1e6;
+                String mode = precompute ? "arrays" : "on the fly";
+
+                String[] names = {"Dijkstra", "A*"};
+                PathfindingAlgorithm[] algorithms = {new DijkstraPathfinder(), new AStarPathfinder(new ManhattanHeuristic())};
+                for (int i = 0; i < algorithms.length; i++) {
+                    double[] m = measure(algorithms[i], graph, queries);
+                    System.out.printf("%-6d %-10s %-10s %10.0f %12.2f %12.3f%n", size, mode, names[i], buildMs, m[0], m[2]);
+                }
+            }
+        }
+    }
+
+    static void compareNoise(int[] sizes) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-6s %-18s %10s %10s %10s%n", "size", "generator", "ms", "speedup", "alloc MB");
+        for (int size : sizes) {
+            long allocated = AllocationMeter.threadAllocatedBytes();
+            long start = System.nanoTime();
+            NoiseMapGenerator.generateHeightMap(size, size, 4.25, 42L);
+            double baseMs = (System.nanoTime() - start) / 1e6;
+            double baseMb = (AllocationMeter.threadAllocatedBytes() - allocated) / 1048576.0;
+            System.out.printf("%-6d %-18s %10.0f %10s %10.0f%n", size, "original", baseMs, "1.00", baseMb);
+
+            // Untimed run on this thread: warms up the JIT and measures allocation
+            allocated = AllocationMeter.threadAllocatedBytes();
+            NoiseMapGenerator.generateHeightField(size, size, 4.25, 42L, 1.0);
+            double hashedMb = (AllocationMeter.threadAllocatedBytes() - allocated) / 1048576.0;
+
+            int[] threadCounts = IntStream.concat(IntStream.iterate(1, t -> t < cores, t -> t * 2), IntStream.of(cores))
+                .toArray();
+            for (int threads : threadCounts) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    start = System.nanoTime();
+                    pool.submit(() -> NoiseMapGenerator.generateHeightField(size, size, 4.25, 42L, 1.0)).get();
+                    double ms = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("%-6d %-18s %10.0f %10.2f %10.0f%n", size, "hashed, " + threads + " thr", ms,
+                                      baseMs / ms, hashedMb);
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    // Queries 1000-3000 cells apart on a size x size world that is only ever
+    // generated a 256-cell tile at a time. Tiles are counted over the timed
+    // queries; a fresh field per cache size keeps the runs independent.
+    static void compareTiles(int[] sizes) {
+        int tileSize = 256;
+        System.out.printf("%-7s %-8s %10s %10s %10s %10s %10s%n", "size", "tiles", "ms", "expanded", "built", "misses",
+                          "cache MB");
+        for (int size : sizes) {
+            Random random = new Random(7L);
+            int[][] queries = new int[QUERIES][];
+            for (int i = 0; i < QUERIES; i++) {
+                int span = 1000 + random.nextInt(2001);
+                int dr = random.nextInt(span + 1);
+                int dc = span - dr;
+                int r = random.nextInt(size - dr);
+                int c = random.nextInt(size - dc);
+                queries[i] = random.nextBoolean() ? new int[] {r, c, r + dr, c + dc} : new int[] {r + dr, c, r, c + dc};
+            }
+            for (int maxTiles : new int[] {64, 512}) {
+                TiledHeightField field = new TiledHeightField(size, size, 42L, 512, 6, 0.5, MAX_HEIGHT, tileSize,
+                                                              maxTiles);
+                GridGraph graph = new GridGraph(field);
+                SparseAStarPathfinder pathfinder = new SparseAStarPathfinder();
+                pathfinder.findPath(graph, graph.getNode(0, 0), graph.getNode(tileSize, tileSize));
+                long built = field.getTilesBuilt();
+                long misses = field.getCacheMisses();
+                long nanos = 0;
+                double expanded = 0;
+                for (int[] q : queries) {
+                    long start = System.nanoTime();
+                    PathResult result = pathfinder.findPath(graph, graph.getNode(q[0], q[1]), graph.getNode(q[2], q[3]));
+                    nanos += System.nanoTime() - start;
+                    expanded += result.getExpandedNodes();
+                }
+                double cacheMb = (double) maxTiles * tileSize * tileSize * Float.BYTES / 1048576.0;
+                System.out.printf("%-7d %-8d %10.1f %10.0f %10d %10d %10.0f%n", size, maxTiles, nanos / 1e6 / QUERIES,
+                                  expanded / QUERIES, field.getTilesBuilt() - built, field.getCacheMisses() - misses,
+                                  cacheMb);
+            }
+        }
+    }
+
+    // An agent walks a cross-map path; every few steps a 7x7 patch on the
+    // path ahead of it is raised (a spoil heap or a flood wall). D* Lite
+    // repairs its previous search; A* starts over from the agent's cell.
+    static void compareReplanning(int[] sizes) {
+        int edits = 20;
+        System.out.printf("%-6s %-8s %-10s %10s %12s %12s%n", "size", "phase", "planner", "ms", "expanded",
+                          "max diff");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            Heuristic heuristic = new CostModelHeuristic(graph);
+            AStarPathfinder astar = new AStarPathfinder(heuristic);
+            Node goal = graph.getNode(size - 1 - size / 8, size - 1 - size / 8);
+            Node agent = graph.getNode(size / 8, size / 8);
+            astar.findPath(graph, agent, goal); // warmup
+
+            try (DStarLitePlanner planner = new DStarLitePlanner(graph, heuristic, agent, goal)) {
+                long start = System.nanoTime();
+                PathResult plan = planner.plan();
+                double dstarMs = (System.nanoTime() - start) / 1e6;
+                start = System.nanoTime();
+                PathResult fresh = astar.findPath(graph, agent, goal);
+                double astarMs = (System.nanoTime() - start) / 1e6;
+                double diff = Math.abs(plan.getSimulatedTime() - fresh.getSimulatedTime());
+                System.out.printf("%-6d %-8s %-10s %10.2f %12d %12s%n", size, "initial", "D* Lite", dstarMs,
+                                  plan.getExpandedNodes(), "");
+                System.out.printf("%-6d %-8s %-10s %10.2f %12d %12.2e%n", size, "initial", "A*", astarMs,
+                                  fresh.getExpandedNodes(), diff);
+
+                double[] replan = new double[4]; // D* Lite ms, expanded, A* ms, expanded
+                double maxDiff = diff;
+                int advance = Math.max(1, size / (edits * 2));
+                for (int edit = 0; edit < edits; edit++) {
+                    List<Node> path = plan.getPath();
+                    if (path.size() <= advance + 10) {
+                        break;
+                    }
+                    agent = path.get(advance);
+                    planner.moveTo(agent);
+                    Node ahead = path.get(Math.min(path.size() - 2, advance + 10 + edit % 20));
+                    for (int r = ahead.getRow() - 3; r <= ahead.getRow() + 3; r++) {
+                        for (int c = ahead.getCol() - 3; c <= ahead.getCol() + 3; c++) {
+                            if (r >= 0 && r < size && c >= 0 && c < size && (r != goal.getRow() || c != goal.getCol())) {
+                                graph.setHeight(r, c, graph.getNode(r, c).getHeight() + MAX_HEIGHT / 5);
+                            }
+                        }
+                    }
+                    start = System.nanoTime();
+                    plan = planner.plan();
+                    replan[0] += (System.nanoTime() - start) / 1e6;
+                    replan[1] += plan.getExpandedNodes();
+                    start = System.nanoTime();
+                    fresh = astar.findPath(graph, agent, goal);
+                    replan[2] += (System.nanoTime() - start) / 1e6;
+                    replan[3] += fresh.getExpandedNodes();
+                    maxDiff = Math.max(maxDiff, Math.abs(plan.getSimulatedTime() - fresh.getSimulatedTime()));
+                }
+                System.out.printf("%-6d %-8s %-10s %10.2f %12.0f %12s%n", size, "replan", "D* Lite",
+                                  replan[0] / edits, replan[1] / edits, "");
+                System.out.printf("%-6d %-8s %-10s %10.2f %12.0f %12.2e%n", size, "replan", "A*",
+                                  replan[2] / edits, replan[3] / edits, maxDiff);
+            }
+        }
+    }
+
+    // Traffic between 12 points of interest: 60% of the queries go from one
+    // to another, 40% join a route already travelled somewhere along it and
+    // head for its end. Heights are edited once halfway through, which
+    // invalidates every cached path.
+    static void compareCaching(int[] sizes) {
+        int queryCount = 400;
+        System.out.printf("%-6s %-10s %10s %8s %8s %8s %8s %10s%n", "size", "pathfinder", "ms/query", "hits",
+                          "sub hits", "misses", "evicted", "max diff");
+        for (int size : sizes) {
+            Random random = new Random(11L);
+            GridGraph graph = terrain(size, size, 42L);
+            Node[] pois = new Node[12];
+            for (int i = 0; i < pois.length; i++) {
+                pois[i] = graph.getNode(random.nextInt(size), random.nextInt(size));
+            }
+            PathfindingAlgorithm astar = new AStarPathfinder(new CostModelHeuristic(graph));
+            List<Node[]> queries = new ArrayList<>();
+            List<List<Node>> routes = new ArrayList<>();
+            for (int i = 0; i < queryCount; i++) {
+                if (routes.isEmpty() || random.nextInt(10) < 6) {
+                    Node from = pois[random.nextInt(pois.length)];
+                    Node to = pois[random.nextInt(pois.length)];
+                    queries.add(new Node[] {from, to});
+                    routes.add(astar.findPath(graph, from, to).getPath());
+                } else {
+                    List<Node> route = routes.get(random.nextInt(routes.size()));
+                    queries.add(new Node[] {route.get(random.nextInt(route.size())), route.get(route.size() - 1)});
+                }
+            }
+
+            CachingPathfinder cached = new CachingPathfinder(astar, 64, true);
+            double[] costs = new double[queryCount];
+            double maxDiff = 0;
+            for (PathfindingAlgorithm pathfinder : new PathfindingAlgorithm[] {astar, cached}) {
+                GridGraph run = terrain(size, size, 42L);
+                long nanos = 0;
+                for (int i = 0; i < queryCount; i++) {
+                    if (i == queryCount / 2) {
+                        Node edited = queries.get(i)[0];
+                        run.setHeight(edited.getRow(), edited.getCol(), edited.getHeight() + MAX_HEIGHT / 5);
+                    }
+                    Node[] q = queries.get(i);
+                    long start = System.nanoTime();
+                    PathResult result = pathfinder.findPath(run, run.getNode(q[0].getRow(), q[0].getCol()),
+                                                            run.getNode(q[1].getRow(), q[1].getCol()));
+                    nanos += System.nanoTime() - start;
+                    if (pathfinder == astar) {
+                        costs[i] = result.getSimulatedTime();
+                    } else {
+                        maxDiff = Math.max(maxDiff, Math.abs(result.getSimulatedTime() - costs[i]));
+                    }
+                }
+                boolean isCached = pathfinder == cached;
+                System.out.printf("%-6d %-10s %10.2f %8s %8s %8s %8s %10s%n", size, isCached ? "cached" : "A*",
+                                  nanos / 1e6 / queryCount,
+                                  isCached ? cached.getHits() : "-", isCached ? cached.getSubPathHits() : "-",
+                                  isCached ? cached.getMisses() : "-", isCached ? cached.getEvictions() : "-",
+                                  isCached ? String.format("%.2e", maxDiff) : "");
+            }
+        }
+    }
+
+    // Destinations are spread over the whole map, so the single search ends
+    // up settling most of it; paths are extracted for every target so both
+    // sides produce the same output
+    static void compareOneToMany(int[] sizes) {
+        System.out.printf("%-6s %-8s %-12s %10s %12s %10s%n", "size", "targets", "method", "ms", "expanded", "max diff");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            Node depot = graph.getNode(size / 2, size / 2);
+            DijkstraPathfinder dijkstra = new DijkstraPathfinder();
+            dijkstra.findAll(graph, depot, List.of()); // warmup
+            for (int targetCount : new int[] {10, 100, 500}) {
+                Random random = new Random(targetCount);
+                List<Node> targets = new ArrayList<>();
+                for (int i = 0; i < targetCount; i++) {
+                    targets.add(graph.getNode(random.nextInt(size), random.nextInt(size)));
+                }
+
+                long start = System.nanoTime();
+                double[] separate = new double[targetCount];
+                long separateExpanded = 0;
+                for (int i = 0; i < targetCount; i++) {
+                    PathResult result = dijkstra.findPath(graph, depot, targets.get(i));
+                    separate[i] = result.getSimulatedTime();
+                    separateExpanded += result.getExpandedNodes();
+                }
+                double separateMs = (System.nanoTime() - start) / 1e6;
+
+                start = System.nanoTime();
+                CostField field = dijkstra.findAll(graph, depot, targets);
+                double maxDiff = 0;
+                for (int i = 0; i < targetCount; i++) {
+                    maxDiff = Math.max(maxDiff, Math.abs(field.getPath(targets.get(i)).getSimulatedTime() - separate[i]));
+                }
+                double fieldMs = (System.nanoTime() - start) / 1e6;
+
+                System.out.printf("%-6d %-8d %-12s %10.1f %12d %10s%n", size, targetCount, "findPath x N", separateMs,
+                                  separateExpanded, "");
+                System.out.printf("%-6d %-8d %-12s %10.1f %12d %10.2e%n", size, targetCount, "findAll", fieldMs,
+                                  field.getStats().getExpanded(), maxDiff);
+            }
+        }
+    }
+
+    // The same terrain searched with each connectivity, first with the
+    // default cost model and then with steep climbs forbidden, where the
+    // corner rules come into play. Costs are relative to the 4-connected
+    // Dijkstra result under the same cost model; A* uses CostModelHeuristic
+    // with the metric matching the connectivity.
+    static void compareConnectivity(int[] sizes) {
+        System.out.printf("%-6s %-10s %-7s %-14s %-9s %12s %12s %12s %9s%n", "size", "model", "moves", "corners",
+                          "algorithm", "latency ms", "expanded", "cost", "vs 4 %");
+        GridGraph.Connectivity four = GridGraph.Connectivity.FOUR;
+        GridGraph.Connectivity eight = GridGraph.Connectivity.EIGHT;
+        GridGraph.Connectivity sixteen = GridGraph.Connectivity.SIXTEEN;
+        GridGraph.CornerCutting allow = GridGraph.CornerCutting.ALLOW;
+        GridGraph.CornerCutting noCutting = GridGraph.CornerCutting.NO_CUTTING;
+        for (int size : sizes) {
+            double[][] heightMap = heights(size, size, 42L, 0);
+            // Steepest steps of the terrain, so a cap blocks some of them
+            double maxClimb = 0;
+            for (int r = 1; r < size; r++) {
+                for (int c = 1; c < size; c++) {
+                    maxClimb = Math.max(maxClimb, Math.max(Math.abs(heightMap[r][c] - heightMap[r - 1][c]),
+                                                           Math.abs(heightMap[r][c] - heightMap[r][c - 1])));
+                }
+            }
+            CostModel[] models = {SlopeCostModel.DEFAULT, SlopeCostModel.DEFAULT.withMaxClimb(maxClimb * 0.6)};
+            String[] modelNames = {"default", "max climb"};
+            GridGraph.Connectivity[] movesets = {four, eight, sixteen, eight, sixteen};
+            GridGraph.CornerCutting[] cornerRules = {allow, allow, allow, noCutting, noCutting};
+            Node[][] queries = null;
+            for (int m = 0; m < models.length; m++) {
+                double base = 0;
+                for (int k = 0; k < movesets.length; k++) {
+                    GridGraph.Connectivity moves = movesets[k];
+                    GridGraph.CornerCutting corners = cornerRules[k];
+                    if (m == 0 && corners != allow) {
+                        continue; // nothing is ever blocked, so the rules change nothing
+                    }
+                    GridGraph graph = new GridGraph(heightMap, GridGraph.StorageMode.FLAT_DOUBLE, models[m], false,
+                                                    moves, corners);
+                    if (queries == null) {
+                        queries = crossMapQueries(graph, QUERIES, 7L);
+                    }
+                    String[] names = {"Dijkstra", "A*"};
+                    PathfindingAlgorithm[] algorithms = {
+                        new DijkstraPathfinder(), new AStarPathfinder(new CostModelHeuristic(graph))
+                    };
+                    for (int i = 0; i < algorithms.length; i++) {
+                        double[] result = measure(algorithms[i], graph, queries);
+                        if (moves == four && i == 0) {
+                            base = result[2];
+                        }
+                        System.out.printf("%-6d %-10s %-7d %-14s %-9s %12.2f %12.0f %12.3f %9.2f%n", size,
+                                          modelNames[m], moves.getDirectionCount(), corners, names[i],
+                                          result[0], result[1], result[2], (result[2] / base - 1) * 100);
+                    }
+                }
+            }
+            SearchContextPool.clearThread();
+        }
+    }
+
+    // Cross-map queries with the heap-based Dijkstra and BucketDijkstraPathfinder.
+    // Quanta are in cost units; the default model's cheapest step costs 2.
+    // "of bound" is the worst query's extra cost as a share of its error bound.
+    static void compareBuckets(int[] sizes) {
+        System.out.printf("%-6s %-14s %12s %12s %12s %9s %9s%n", "size", "queue", "latency ms", "expanded", "cost",
+                          "cost +%", "of bound");
+        for (int size : sizes) {
+            GridGraph graph = terrain(size, size, 42L);
+            Node[][] queries = crossMapQueries(graph, QUERIES, 7L);
+            DijkstraPathfinder heap = new DijkstraPathfinder();
+            double[] base = measure(heap, graph, queries);
+            System.out.printf("%-6d %-14s %12.2f %12.0f %12.3f %9s %9s%n", size, "binary heap", base[0], base[1],
+                              base[2], "-", "-");
+            int[] optimalMoves = new int[queries.length];
+            for (int i = 0; i < queries.length; i++) {
+                optimalMoves[i] = heap.findPath(graph, queries[i][0], queries[i][1]).getPathLength() - 1;
+            }
+            for (double quantum : new double[] {0, 0.25, 1, 2}) {
+                BucketDijkstraPathfinder buckets = quantum == 0 ? new BucketDijkstraPathfinder()
+                                                                : new BucketDijkstraPathfinder(quantum);
+                double[] result = measure(buckets, graph, queries);
+                double ofBound = 0;
+                for (int i = 0; quantum > 0 && i < queries.length; i++) {
+                    PathResult found = buckets.findPath(graph, queries[i][0], queries[i][1]);
+                    double optimal = heap.findPath(graph, queries[i][0], queries[i][1]).getSimulatedTime();
+                    double bound = buckets.getErrorBound(optimalMoves[i], found.getPathLength() - 1);
+                    ofBound = Math.max(ofBound, (found.getSimulatedTime() - optimal) / bound);
+                }
+                System.out.printf("%-6d %-14s %12.2f %12.0f %12.3f %9.3f %9s%n", size,
+                                  quantum == 0 ? "buckets exact" : "buckets q=" + quantum, result[0], result[1],
+                                  result[2], (result[2] / base[2] - 1) * 100,
+                                  quantum == 0 ? "-" : String.format("%.2f", ofBound));
+            }
+            SearchContextPool.clearThread();
+        }
+    }
+}
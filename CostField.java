@@ -0,0 +1,66 @@
+import java.util.List;
+
+// Result of a one-to-many search (DijkstraPathfinder.findAll): the cost from
+// the source to every settled cell, plus one byte per cell that points back
+// along the cheapest path, so paths are only built for the targets asked
+// for. Five bytes per cell in all.
+//
+// Costs are stored as float; getPath() re-adds the edge costs in double and
+// in path order, so its cost is exactly DijkstraPathfinder.findPath's. Cells the search didn't
+// settle before it stopped read +infinity, as do unreachable ones.
+public class CostField {
+    static final byte NO_PARENT = -1;
+
+    private final GridGraph graph;
+    private final int source;
+    private final float[] costs;
+    private final byte[] parentDir; // d with getPredecessorIndex(cell, d) == parent
+    private final SearchStats stats;
+
+    CostField(GridGraph graph, int source, float[] costs, byte[] parentDir, SearchStats stats) {
+        this.graph = graph;
+        this.source = source;
+        this.costs = costs;
+        this.parentDir = parentDir;
+        this.stats = stats;
+    }
+
+    public Node getSource() { return graph.getNode(source); }
+    public SearchStats getStats() { return stats; }
+
+    public float getCost(int cell) { return costs[cell]; }
+    public float getCost(Node node) { return costs[graph.getCellIndex(node)]; }
+
+    // Indexed by cell (row * cols + col); shared, don't modify
+    public float[] getCosts() { return costs; }
+
+    public boolean isSettled(Node node) {
+        int cell = graph.getCellIndex(node);
+        return cell == source || parentDir[cell] != NO_PARENT;
+    }
+
+    // Cheapest path from the source to target; empty with +infinity cost if
+    // target wasn't settled
+    public PathResult getPath(Node target) {
+        int cell = graph.getCellIndex(target);
+        if (!isSettled(target)) {
+            return new PathResult(List.of(), Double.POSITIVE_INFINITY, SearchStats.EMPTY);
+        }
+        int length = 1;
+        for (int c = cell; c != source; c = graph.getPredecessorIndex(c, parentDir[c])) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1; i > 0; i--) {
+            path[i] = cell;
+            cell = graph.getPredecessorIndex(cell, parentDir[cell]);
+        }
+        path[0] = source;
+        // Summed from the source, in the order the search added them
+        double cost = 0;
+        for (int i = 1; i < length; i++) {
+            cost += graph.getIncomingEdgeCost(path[i], parentDir[path[i]]);
+        }
+        return new PathResult(graph, path, cost, SearchStats.EMPTY);
+    }
+}
@@ -0,0 +1,15 @@
+// Cost of a single move between two cells, given their heights and the
+// length of the move (1 for a straight step). GridGraph asks its model for
+// every edge, either on the fly or once at build time.
+//
+// Heuristics build on the two bounds, which must hold for every move with
+// distance >= 1:
+//   getCost(h1, h2, distance) >= getMinStepCost() * distance + getClimbCost() * max(0, h2 - h1)
+// Return Double.POSITIVE_INFINITY for moves that aren't allowed.
+public interface CostModel {
+    double getCost(double fromHeight, double toHeight, double distance);
+
+    double getMinStepCost();
+
+    double getClimbCost();
+}
@@ -0,0 +1,73 @@
+// Lower bound built from the graph's own cost rules instead of unit steps:
+//   minStepCost * distance(from, to) + climbCost * max(0, height(to) - height(from))
+// Every step costs at least minStepCost, and every unit of height gained
+// costs climbCost on top, so the net climb to the goal has to be paid
+// somewhere along any path. Admissible and consistent for any terrain.
+//
+// The distance metric has to match the graph's moves: MANHATTAN for
+// 4-connected grids, OCTILE once diagonal steps exist, EUCLIDEAN for
+// anything with longer moves. Each one is a valid (if looser) bound for the
+// grids the ones before it serve. The one-argument constructor picks the
+// metric from GridGraph.getConnectivity().
+public class CostModelHeuristic implements Heuristic {
+    public enum Metric {
+        MANHATTAN, OCTILE, EUCLIDEAN;
+
+        // Tightest metric that is still a lower bound under the connectivity
+        public static Metric forConnectivity(GridGraph.Connectivity connectivity) {
+            switch (connectivity) {
+                case EIGHT: return OCTILE;
+                case SIXTEEN: return EUCLIDEAN;
+                default: return MANHATTAN;
+            }
+        }
+    }
+
+    private static final double DIAGONAL_EXTRA = Math.sqrt(2) - 2; // octile: diagonal instead of two straight steps
+
+    private final Metric metric;
+    private final double stepCost;
+    private final double climbCost;
+
+    public CostModelHeuristic(GridGraph graph) {
+        this(graph, Metric.forConnectivity(graph.getConnectivity()));
+    }
+
+    public CostModelHeuristic(GridGraph graph, Metric metric) {
+        this.metric = metric;
+        this.stepCost = graph.getMinStepCost();
+        this.climbCost = graph.getClimbCost();
+    }
+
+    public Metric getMetric() { return metric; }
+
+    @Override
+    public double estimate(Node a, Node b) {
+        return bound(Math.abs(a.getRow() - b.getRow()), Math.abs(a.getCol() - b.getCol()),
+                     b.getHeight() - a.getHeight());
+    }
+
+    @Override
+    public double estimate(GridGraph graph, int from, int to) {
+        int cols = graph.getCols();
+        return bound(Math.abs(from / cols - to / cols), Math.abs(from % cols - to % cols),
+                     graph.getHeight(to) - graph.getHeight(from));
+    }
+
+    private double bound(int dr, int dc, double climb) {
+        return stepCost * distance(metric, dr, dc) + (climb > 0 ? climbCost * climb : 0);
+    }
+
+    // Lower bound on the length of any route covering dr rows and dc columns
+    // (both >= 0) under the metric's moves
+    static double distance(Metric metric, long dr, long dc) {
+        switch (metric) {
+            case OCTILE:
+                return dr + dc + DIAGONAL_EXTRA * Math.min(dr, dc);
+            case EUCLIDEAN:
+                return Math.sqrt((double) dr * dr + (double) dc * dc);
+            default:
+                return dr + dc;
+        }
+    }
+}
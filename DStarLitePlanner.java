@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.List;
+
+// D* Lite (Koenig & Likhachev): replans for an agent heading to a fixed goal
+// while the terrain changes under it, repairing the previous search instead
+// of starting over. The search runs backward from the goal. Every cell keeps
+//   g    its cost to the goal as of the last search
+//   rhs  min over successors s of cost(cell, s) + g(s)
+// and cells where the two differ are queued. A height change only re-derives
+// rhs for the cells whose edges it touched, so the next plan() reprocesses
+// just the part of the search that depended on them.
+//
+// Queue keys are [min(g, rhs) + h(start, cell) + km, min(g, rhs)]. When the
+// agent moves, km grows by h(old start, new start), which keeps the queued
+// keys lower bounds without re-keying the whole queue. That needs a
+// consistent heuristic that stays valid as heights change, such as
+// ManhattanHeuristic or CostModelHeuristic (not LandmarkHeuristic). An
+// estimate may depend on the heights of its own two cells: a changed cell
+// is re-keyed anyway, and a change under the start re-keys the queue.
+//
+// Listens to the graph's height changes from construction until close().
+// Not thread-safe; edit the graph between plan() calls, not during one.
+public class DStarLitePlanner implements HeightChangeListener, AutoCloseable {
+    private final GridGraph graph;
+    private final Heuristic heuristic;
+    private final int goal;
+    private int start;
+    private double km;
+
+    private final double[] g;
+    private final double[] rhs;
+    private final IndexedMinHeap open;
+    private int expanded; // per plan()
+
+    public DStarLitePlanner(GridGraph graph, Heuristic heuristic, Node start, Node goal) {
+        this.graph = graph;
+        this.heuristic = heuristic;
+        this.start = graph.getCellIndex(start);
+        this.goal = graph.getCellIndex(goal);
+        int cells = graph.getRows() * graph.getCols();
+        this.g = new double[cells];
+        this.rhs = new double[cells];
+        this.open = new IndexedMinHeap(cells);
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Double.POSITIVE_INFINITY);
+        rhs[this.goal] = 0;
+        open.update(this.goal, heuristic.estimate(graph, this.start, this.goal), 0);
+        graph.addHeightChangeListener(this);
+    }
+
+    public Node getStart() { return graph.getNode(start); }
+    public Node getGoal() { return graph.getNode(goal); }
+
+    // The agent moved; the next plan() starts from here
+    public void moveTo(Node position) {
+        int cell = graph.getCellIndex(position);
+        km += heuristic.estimate(graph, start, cell);
+        start = cell;
+    }
+
+    // Cheapest path from the current start to the goal under the current
+    // heights; the stats count only the work done by this call
+    public PathResult plan() {
+        int pushes = open.getPushCount();
+        int decreases = open.getDecreaseCount();
+        int pops = open.getPollCount();
+        open.resetPeakSize();
+        expanded = 0;
+        computeShortestPath();
+        // generated: cells (re)queued by this call
+        SearchStats stats = new SearchStats(expanded, open.getPushCount() - pushes, open.getPushCount() - pushes,
+                                            open.getDecreaseCount() - decreases, open.getPollCount() - pops,
+                                            open.getPeakSize(), 0, 0, 0);
+        // The loop may stop with the start overconsistent (g > rhs); rhs is its cost then
+        if (rhs[start] == Double.POSITIVE_INFINITY) {
+            return new PathResult(List.of(), Double.POSITIVE_INFINITY, stats);
+        }
+
+        // Walk downhill in cost-to-goal; consistent cells make this optimal
+        int[] path = new int[64];
+        int length = 0;
+        path[length++] = start;
+        double cost = 0;
+        int directions = graph.getDirectionCount();
+        for (int cell = start; cell != goal; ) {
+            int best = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            double bestEdge = 0;
+            for (int dir = 0; dir < directions; dir++) {
+                int next = graph.getNeighborIndex(cell, dir);
+                if (next < 0) {
+                    continue;
+                }
+                double edge = graph.getEdgeCost(cell, dir);
+                if (edge + g[next] < bestCost) {
+                    bestCost = edge + g[next];
+                    bestEdge = edge;
+                    best = next;
+                }
+            }
+            if (best < 0 || length > g.length) {
+                throw new IllegalStateException("No consistent path from the start; was the graph edited during plan()?");
+            }
+            cost += bestEdge;
+            cell = best;
+            if (length == path.length) {
+                path = Arrays.copyOf(path, length * 2);
+            }
+            path[length++] = cell;
+        }
+        return new PathResult(graph, Arrays.copyOf(path, length), cost, stats);
+    }
+
+    @Override
+    public void heightChanged(GridGraph changed, int cell, double oldHeight, double newHeight) {
+        if (changed != graph) {
+            return;
+        }
+        if (cell == start) {
+            // Every queued key was estimated from the start's old height
+            for (int queued : open.toIdArray()) {
+                requeue(queued);
+            }
+        }
+        // The cell's own edges, its neighbours' edges into it and (with
+        // corner rules) moves passing beside it changed
+        int reach = graph.getEdgeReach();
+        int r = graph.getRow(cell);
+        int c = graph.getCol(cell);
+        for (int nr = Math.max(0, r - reach); nr <= Math.min(graph.getRows() - 1, r + reach); nr++) {
+            for (int nc = Math.max(0, c - reach); nc <= Math.min(graph.getCols() - 1, c + reach); nc++) {
+                updateRhs(graph.getCellIndex(nr, nc));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        graph.removeHeightChangeListener(this);
+    }
+
+    private void computeShortestPath() {
+        int directions = graph.getDirectionCount();
+        while (!open.isEmpty()) {
+            double startMin = Math.min(g[start], rhs[start]);
+            double topKey = open.peekKey();
+            double topTie = open.peekTie();
+            boolean startSettled = topKey > startMin + km || (topKey == startMin + km && topTie >= startMin);
+            if (startSettled && rhs[start] <= g[start]) {
+                break;
+            }
+            int u = open.peek();
+            double min = Math.min(g[u], rhs[u]);
+            double key = min + heuristic.estimate(graph, start, u) + km;
+            if (topKey < key || (topKey == key && topTie < min)) {
+                // Queued before the agent moved; km has grown since
+                open.update(u, key, min);
+            } else if (g[u] > rhs[u]) {
+                // Overconsistent: settle it and offer it to its predecessors
+                g[u] = rhs[u];
+                open.poll();
+                expanded++;
+                for (int dir = 0; dir < directions; dir++) {
+                    int previous = graph.getPredecessorIndex(u, dir);
+                    if (previous >= 0 && previous != goal) {
+                        double through = graph.getIncomingEdgeCost(u, dir) + g[u];
+                        if (through < rhs[previous]) {
+                            rhs[previous] = through;
+                            requeue(previous);
+                        }
+                    }
+                }
+            } else {
+                // Underconsistent: its cost went up; predecessors that relied
+                // on it look for their best successor again
+                double oldG = g[u];
+                g[u] = Double.POSITIVE_INFINITY;
+                expanded++;
+                updateRhs(u);
+                for (int dir = 0; dir < directions; dir++) {
+                    int previous = graph.getPredecessorIndex(u, dir);
+                    if (previous >= 0 && rhs[previous] == graph.getIncomingEdgeCost(u, dir) + oldG) {
+                        updateRhs(previous);
+                    }
+                }
+            }
+        }
+    }
+
+    // Recomputes rhs from the successors and requeues the cell accordingly
+    private void updateRhs(int cell) {
+        if (cell != goal) {
+            double best = Double.POSITIVE_INFINITY;
+            int directions = graph.getDirectionCount();
+            for (int dir = 0; dir < directions; dir++) {
+                int next = graph.getNeighborIndex(cell, dir);
+                if (next >= 0) {
+                    best = Math.min(best, graph.getEdgeCost(cell, dir) + g[next]);
+                }
+            }
+            rhs[cell] = best;
+        }
+        requeue(cell);
+    }
+
+    private void requeue(int cell) {
+        if (g[cell] == rhs[cell]) {
+            open.remove(cell);
+            return;
+        }
+        double min = Math.min(g[cell], rhs[cell]);
+        open.update(cell, min + heuristic.estimate(graph, start, cell) + km, min);
+    }
+}
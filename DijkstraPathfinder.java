@@ -3,53 +3,135 @@ import java.util.*;
 public class DijkstraPathfinder implements PathfindingAlgorithm {
     @Override
     public PathResult findPath(GridGraph graph, Node start, Node end) {
-        Map<Node, Double> dist = new HashMap<>();
-        Map<Node, Node> prev = new HashMap<>();
-        PriorityQueue<NodeDist> pq = new PriorityQueue<>(Comparator.comparingDouble(nd -> nd.dist));
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            IndexedMinHeap pq = context.getOpenSet();
+            int directions = graph.getDirectionCount();
 
-        dist.put(start, 0.0);
-        pq.add(new NodeDist(start, 0.0));
+            context.setCost(source, 0.0, -1);
+            pq.insertOrDecrease(source, 0.0);
 
-        while (!pq.isEmpty()) {
-            NodeDist current = pq.poll();
-            Node u = current.node;
+            while (!pq.isEmpty()) {
+                int u = pq.poll();
 
-            if (u.equals(end)) {
-                // Found shortest path
-                break;
-            }
+                if (u == target) {
+                    // Found shortest path
+                    break;
+                }
+                context.close(u);
 
-            for (Node v : graph.getNeighbors(u)) {
-                double alt = dist.get(u) + graph.getCost(u, v);
-                if (alt < dist.getOrDefault(v, Double.POSITIVE_INFINITY)) {
-                    dist.put(v, alt);
-                    prev.put(v, u);
-                    pq.add(new NodeDist(v, alt));
+                double du = context.getCost(u);
+                for (int dir = 0; dir < directions; dir++) {
+                    int v = graph.getNeighborIndex(u, dir);
+                    if (v < 0 || context.isClosed(v)) {
+                        continue;
+                    }
+                    double alt = du + context.edgeCost(graph, u, dir);
+                    if (alt < context.getCost(v)) {
+                        context.setCost(v, alt, u);
+                        pq.insertOrDecrease(v, alt);
+                    }
                 }
             }
-        }
 
-        List<Node> path = reconstructPath(prev, start, end);
-        double simulatedTime = dist.getOrDefault(end, Double.POSITIVE_INFINITY);
-        return new PathResult(path, simulatedTime);
+            int[] path = context.pathCells(source, target);
+            double simulatedTime = context.getCost(target);
+            return SearchStats.report(this, new PathResult(graph, path, simulatedTime, context.getStats()));
+        } finally {
+            SearchContextPool.release(context);
+        }
     }
 
-    private List<Node> reconstructPath(Map<Node, Node> prev, Node start, Node end) {
-        List<Node> path = new LinkedList<>();
-        Node cur = end;
-        while (cur != null && !cur.equals(start)) {
-            path.add(0, cur);
-            cur = prev.get(cur);
-        }
-        if (cur != null) {
-            path.add(0, start);
+    // One search for many destinations: settles cells outward from start
+    // until every target is settled (the whole reachable map if targets is
+    // empty), then paths to any of them come from the returned field.
+    public CostField findAll(GridGraph graph, Node start, Collection<Node> targets) {
+        int cells = graph.getRows() * graph.getCols();
+        int[] pending = targets.stream().mapToInt(graph::getCellIndex).sorted().distinct().toArray();
+        int remaining = pending.length;
+        float[] costs = new float[cells];
+        byte[] parentDir = new byte[cells];
+        Arrays.fill(costs, Float.POSITIVE_INFINITY);
+        Arrays.fill(parentDir, CostField.NO_PARENT);
+
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            IndexedMinHeap pq = context.getOpenSet();
+            int directions = graph.getDirectionCount();
+
+            context.setCost(source, 0.0, -1);
+            pq.insertOrDecrease(source, 0.0);
+
+            while (!pq.isEmpty()) {
+                int u = pq.poll();
+                context.close(u);
+                double du = context.getCost(u);
+                costs[u] = (float) du;
+                int parent = context.getParent(u);
+                for (int dir = 0; parent >= 0; dir++) {
+                    if (graph.getPredecessorIndex(u, dir) == parent) {
+                        parentDir[u] = (byte) dir;
+                        break;
+                    }
+                }
+                if (Arrays.binarySearch(pending, u) >= 0 && --remaining == 0) {
+                    break;
+                }
+
+                for (int dir = 0; dir < directions; dir++) {
+                    int v = graph.getNeighborIndex(u, dir);
+                    if (v < 0 || context.isClosed(v)) {
+                        continue;
+                    }
+                    double alt = du + context.edgeCost(graph, u, dir);
+                    if (alt < context.getCost(v)) {
+                        context.setCost(v, alt, u);
+                        pq.insertOrDecrease(v, alt);
+                    }
+                }
+            }
+            return new CostField(graph, source, costs, parentDir, context.getStats());
+        } finally {
+            SearchContextPool.release(context);
         }
-        return path;
     }
 
-    private static class NodeDist {
-        Node node;
-        double dist;
-        NodeDist(Node n, double d) { node = n; dist = d; }
+    // Runs to exhaustion from source and writes every cell's cost into out
+    // (+infinity where unreachable). With reverse set, edges are followed
+    // backwards, so out[v] is the cost of getting from v to source instead.
+    public static void computeCosts(GridGraph graph, int source, boolean reverse, float[] out) {
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            IndexedMinHeap pq = context.getOpenSet();
+            int directions = graph.getDirectionCount();
+            Arrays.fill(out, Float.POSITIVE_INFINITY);
+
+            context.setCost(source, 0.0, -1);
+            pq.insertOrDecrease(source, 0.0);
+
+            while (!pq.isEmpty()) {
+                int u = pq.poll();
+                context.close(u);
+                double du = context.getCost(u);
+                out[u] = (float) du;
+
+                for (int dir = 0; dir < directions; dir++) {
+                    int v = reverse ? graph.getPredecessorIndex(u, dir) : graph.getNeighborIndex(u, dir);
+                    if (v < 0 || context.isClosed(v)) {
+                        continue;
+                    }
+                    double alt = du + (reverse ? context.incomingEdgeCost(graph, u, dir) : context.edgeCost(graph, u, dir));
+                    if (alt < context.getCost(v)) {
+                        context.setCost(v, alt, u);
+                        pq.insertOrDecrease(v, alt);
+                    }
+                }
+            }
+        } finally {
+            SearchContextPool.release(context);
+        }
     }
 }
@@ -0,0 +1,23 @@
+// Ignores terrain: every move costs a fixed amount per unit of distance.
+// Searches then find the geometrically shortest route.
+public class DistanceCostModel implements CostModel {
+    private final double costPerUnit;
+
+    public DistanceCostModel(double costPerUnit) {
+        if (costPerUnit <= 0) {
+            throw new IllegalArgumentException("costPerUnit must be positive");
+        }
+        this.costPerUnit = costPerUnit;
+    }
+
+    @Override
+    public double getCost(double fromHeight, double toHeight, double distance) {
+        return costPerUnit * distance;
+    }
+
+    @Override
+    public double getMinStepCost() { return costPerUnit; }
+
+    @Override
+    public double getClimbCost() { return 0; }
+}
@@ -0,0 +1,50 @@
+// Half the footprint of ArrayHeightField; heights are rounded to float precision
+public class FloatHeightField implements HeightField {
+    private final int rows;
+    private final int cols;
+    private final float[] heights;
+
+    public FloatHeightField(double[][] heightMap) {
+        this.rows = heightMap.length;
+        this.cols = heightMap[0].length;
+        this.heights = new float[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                heights[r * cols + c] = (float) heightMap[r][c];
+            }
+        }
+    }
+
+    public FloatHeightField(int rows, int cols, float[] heights) {
+        if (heights.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + (rows * cols) + " heights, got " + heights.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.heights = heights;
+    }
+
+    @Override
+    public int getRows() { return rows; }
+
+    @Override
+    public int getCols() { return cols; }
+
+    @Override
+    public double getHeight(int row, int col) {
+        return heights[row * cols + col];
+    }
+
+    @Override
+    public double getHeight(int index) {
+        return heights[index];
+    }
+
+    @Override
+    public double getHeapBytesPerCell() { return 4; }
+
+    @Override
+    public void setHeight(int row, int col, double height) {
+        heights[row * cols + col] = (float) height;
+    }
+}
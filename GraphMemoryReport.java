@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Prints heap bytes per cell for each GridGraph storage mode.
+// Usage: java -Xmx4g GraphMemoryReport [size ...]   (default sizes 512 1024 2048)
+public class GraphMemoryReport {
+    public static void main(String[] args) {
+        int[] sizes = {512, 1024, 2048};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        // Every graph is kept alive until the end: freeing one between
+        // measurements makes the next heap delta unreliable
+        List<GridGraph> retained = new ArrayList<>();
+
+        System.out.printf("%-8s %-14s %16s %16s%n", "size", "layout", "measured B/cell", "estimate B/cell");
+        for (int size : sizes) {
+            double[][] heightMap = NoiseMapGenerator.generateHeightMap(size, size, 4.25, 42L);
+            for (GridGraph.StorageMode mode : GridGraph.StorageMode.values()) {
+                long before = usedHeap();
+                GridGraph graph = new GridGraph(heightMap, mode);
+                retained.add(graph);
+                long after = usedHeap();
+                double perCell = (double) (after - before) / ((long) size * size);
+                System.out.printf("%-8d %-14s %16.1f %16d%n", size, mode, perCell, estimateBytesPerCell(graph));
+            }
+        }
+        System.out.println(retained.size() + " graphs measured");
+    }
+
+    // Rough per-cell cost on a 64-bit JVM with compressed oops
+    static int estimateBytesPerCell(GridGraph graph) {
+        int edgeCosts = graph.hasPrecomputedCosts() ? 8 * graph.getDirectionCount() : 0;
+        switch (graph.getStorageMode()) {
+            case FLAT_DOUBLE:
+            case FLAT_FLOAT:
+                // Mapped and tiled fields report less than their element width
+                return (int) Math.ceil(graph.getHeightField().getHeapBytesPerCell()) + edgeCosts;
+            default:
+                int node = 32;          // header + row, col, height, padded
+                int gridSlot = 4;       // reference in Node[][]
+                // Node.hashCode is row * 31 + col, so about cols / 31 cells share
+                // each hash; past 8 per bucket HashMap turns the bucket into a
+                // tree of 56-byte TreeNodes instead of 32-byte Nodes. Plus the
+                // table slots, 4-8 bytes per entry at the default load factor.
+                int mapEntry = (graph.getCols() / 31 > 8 ? 56 : 32) + 8;
+                // ArrayList plus its Object[directions], padded to 8 bytes
+                int list = 24 + (16 + 4 * graph.getDirectionCount() + 7) / 8 * 8;
+                return node + gridSlot + mapEntry + list + edgeCosts;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
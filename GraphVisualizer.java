@@ -1,6 +1,15 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Arrays;
 
 public class GraphVisualizer {
@@ -14,6 +23,24 @@ public class GraphVisualizer {
         Color.GREEN,  // Best-First
         Color.MAGENTA  // BFS
     };
+    // Expanded cells, drawn under the paths: the path colours, mostly transparent
+    private static final int FRONTIER_ALPHA = 0x50;
+    // Live updates repaint at most this often, however fast batches arrive
+    private static final int REPAINT_DELAY_MS = 50;
+    // Height colours, lowest first; terrain and legend both index into this
+    private static final int[] HEIGHT_LUT = new int[256];
+    static {
+        for (int i = 0; i < HEIGHT_LUT.length; i++) {
+            HEIGHT_LUT[i] = interpolateColor(LOWEST_HEIGHT, HIGHEST_HEIGHT, i / (float) (HEIGHT_LUT.length - 1));
+        }
+    }
+
+    private static int interpolateColor(Color c1, Color c2, float ratio) {
+        int red = (int) (c1.getRed() + (c2.getRed() - c1.getRed()) * ratio);
+        int green = (int) (c1.getGreen() + (c2.getGreen() - c1.getGreen()) * ratio);
+        int blue = (int) (c1.getBlue() + (c2.getBlue() - c1.getBlue()) * ratio);
+        return red << 16 | green << 8 | blue;
+    }
 
     public static JPanel createVisualization(GridGraph graph, 
             List<PathResult> results, List<String> algorithmNames,
@@ -35,18 +62,57 @@ public class GraphVisualizer {
         return new GraphPanel(graph, results, algorithmNames, start, end, executionTimes);
     }
 
+    // Panel that starts with no results and is filled in while searches run:
+    // see showExpanded and showResult
+    public static GraphPanel createLiveVisualization(GridGraph graph, List<String> algorithmNames,
+            Node start, Node end) {
+        int count = algorithmNames.size();
+        return new GraphPanel(graph, new ArrayList<>(Collections.nCopies(count, null)), algorithmNames, start, end,
+                              new ArrayList<>(Collections.nCopies(count, 0L)));
+    }
+
     // Make PATH_COLORS accessible
     public static Color[] getPathColors() {
         return PATH_COLORS;
     }
 
-    private static class GraphPanel extends JPanel {
+    // Zoomable, pannable view of the map: the mouse wheel zooms around the
+    // pointer, dragging pans and a double click fits the whole map again.
+    // Terrain is drawn from a HeightPyramid at the level whose cells are
+    // closest to one screen pixel, in TILE x TILE tiles rendered on first use
+    // and kept in an LRU cache, so each paint touches only the visible tiles.
+    //
+    // Must only be used on the Event Dispatch Thread
+    public static class GraphPanel extends JPanel {
+        private static final int TILE = 256;
+        private static final int MAX_TILES = 64; // 16 MB; raised if more are on screen at once
+        private static final double MAX_SCALE = 64; // pixels per cell
+
         private final GridGraph graph;
         private final List<PathResult> results;
         private final List<String> algorithmNames;
         private final Node start;
         private final Node end;
         private final List<Long> executionTimes;
+        private HeightPyramid pyramid; // rebuilt when the graph's version moves on
+        private final Map<Long, BufferedImage> tiles = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                return size() > tileBudget;
+            }
+        };
+        private int tileBudget = MAX_TILES;
+        private BufferedImage frontier; // one pixel per cell, created on the first showExpanded
+        private int[][] pathTexels;     // each path at pathLevel, repeats dropped; null after a new result
+        private int pathLevel = -1;
+        private final Timer repaintTimer = new Timer(REPAINT_DELAY_MS, e -> repaint());
+
+        // View: the cell coordinates at the top left corner and pixels per cell
+        private double viewX;
+        private double viewY;
+        private double scale;
+        private boolean fitted = true; // follow the panel size until zoomed or panned
+        private Point dragFrom;
 
         public GraphPanel(GridGraph graph, List<PathResult> results, 
                 List<String> algorithmNames, Node start, Node end,
@@ -58,6 +124,82 @@ public class GraphVisualizer {
             this.end = end;
             this.executionTimes = executionTimes;
             setPreferredSize(new Dimension(800, 600));
+            repaintTimer.setRepeats(false);
+
+            MouseAdapter mouse = new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragFrom = e.getPoint();
+                }
+
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    if (dragFrom != null) {
+                        viewX -= (e.getX() - dragFrom.x) / scale;
+                        viewY -= (e.getY() - dragFrom.y) / scale;
+                        dragFrom = e.getPoint();
+                        fitted = false;
+                        repaint();
+                    }
+                }
+
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) {
+                        fitted = true;
+                        repaint();
+                    }
+                }
+
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    zoom(Math.pow(1.25, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+                }
+            };
+            addMouseListener(mouse);
+            addMouseMotionListener(mouse);
+            addMouseWheelListener(mouse);
+        }
+
+        // Marks cells[] as expanded by the index-th algorithm
+        public void showExpanded(int index, int[] cells) {
+            if (frontier == null) {
+                frontier = new BufferedImage(graph.getCols(), graph.getRows(), BufferedImage.TYPE_INT_ARGB);
+            }
+            int argb = FRONTIER_ALPHA << 24 | (PATH_COLORS[index].getRGB() & 0xFFFFFF);
+            for (int cell : cells) {
+                frontier.setRGB(graph.getCol(cell), graph.getRow(cell), argb);
+            }
+            scheduleRepaint();
+        }
+
+        public void showResult(int index, PathResult result, long nanos) {
+            results.set(index, result);
+            executionTimes.set(index, nanos);
+            pathTexels = null;
+            scheduleRepaint();
+        }
+
+        // Many updates in quick succession share one repaint
+        private void scheduleRepaint() {
+            if (!repaintTimer.isRunning()) {
+                repaintTimer.start();
+            }
+        }
+
+        // Keeps the cell under (x, y) where it is
+        private void zoom(double factor, int x, int y) {
+            double newScale = Math.max(fitScale() / 4, Math.min(MAX_SCALE, scale * factor));
+            viewX += x / scale - x / newScale;
+            viewY += y / scale - y / newScale;
+            scale = newScale;
+            fitted = false;
+            repaint();
+        }
+
+        private double fitScale() {
+            return Math.min((double) (getWidth() - LEGEND_WIDTH) / graph.getCols(),
+                            (double) getHeight() / graph.getRows());
         }
 
         @Override
@@ -67,65 +209,176 @@ public class GraphVisualizer {
             
             // Calculate actual drawing area considering legend space
             int mainWidth = getWidth() - LEGEND_WIDTH;
-            double cellWidth = (double) mainWidth / graph.getCols();
-            double cellHeight = (double) getHeight() / graph.getRows();
-
-            // Find actual min/max heights in the graph
-            double minHeight = Double.MAX_VALUE;
-            double maxHeight = Double.MIN_VALUE;
-            for (int r = 0; r < graph.getRows(); r++) {
-                for (int c = 0; c < graph.getCols(); c++) {
-                    double h = graph.getNode(r, c).getHeight();
-                    minHeight = Math.min(minHeight, h);
-                    maxHeight = Math.max(maxHeight, h);
-                }
+            if (mainWidth <= 0 || getHeight() <= 0) {
+                return;
             }
-
-            // Draw terrain
-            for (int r = 0; r < graph.getRows(); r++) {
-                for (int c = 0; c < graph.getCols(); c++) {
-                    Node node = graph.getNode(r, c);
-                    double h = node.getHeight();
-                    // Normalize height to 0-1 range
-                    float normalizedHeight = (float) ((h - minHeight) / (maxHeight - minHeight));
-                    g2d.setColor(getHeightColor(normalizedHeight));
-                    g2d.fillRect((int)(c * cellWidth), (int)(r * cellHeight), 
-                               (int)cellWidth + 1, (int)cellHeight + 1);
-                }
+            if (fitted) {
+                scale = fitScale();
+                viewX = (graph.getCols() - mainWidth / scale) / 2;
+                viewY = (graph.getRows() - getHeight() / scale) / 2;
+            }
+            if (pyramid == null || pyramid.isStale()) {
+                pyramid = HeightPyramid.build(graph);
+                tiles.clear();
+            }
+            // The level whose cells are nearest a pixel across (0.7 to 1.4)
+            int level = 0;
+            while (level + 1 < pyramid.getLevelCount() && scale * (1 << (level + 1)) <= Math.sqrt(2)) {
+                level++;
             }
 
-            // Draw paths with adjusted width
-            drawPaths(g2d, cellWidth, cellHeight);
+            Shape clip = g2d.getClip();
+            g2d.clipRect(0, 0, mainWidth, getHeight());
+            drawTerrain(g2d, level, mainWidth);
+            drawFrontier(g2d, mainWidth);
+            drawPaths(g2d, level, mainWidth);
 
             // Highlight start/end with adjusted width
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-            highlightNode(g2d, start, Color.YELLOW, cellWidth, cellHeight);
-            highlightNode(g2d, end, Color.MAGENTA, cellWidth, cellHeight);
+            highlightNode(g2d, start, Color.YELLOW);
+            highlightNode(g2d, end, Color.MAGENTA);
+            g2d.setClip(clip);
 
             // Draw legend
-            drawHeightLegend(g2d, mainWidth, maxHeight);
+            drawHeightLegend(g2d, mainWidth, pyramid.getMinHeight(), pyramid.getMaxHeight());
         }
 
-        private Color getHeightColor(float normalizedHeight) {
-            // Directly interpolate between black and white
-            return interpolateColor(LOWEST_HEIGHT, HIGHEST_HEIGHT, normalizedHeight);
+        private int screenX(double col) { return (int) Math.floor((col - viewX) * scale); }
+        private int screenY(double row) { return (int) Math.floor((row - viewY) * scale); }
+
+        // The level cells from first (inclusive) to last (exclusive) along
+        // one axis that fall within 0..pixels on screen
+        private int firstVisible(double view, int level) {
+            return Math.max(0, (int) Math.floor(view / (1 << level)));
+        }
+
+        private int lastVisible(double view, int pixels, int level, int size) {
+            return Math.min(size, (int) Math.ceil((view + pixels / scale) / (1 << level)));
+        }
+
+        private void drawTerrain(Graphics2D g2d, int level, int mainWidth) {
+            int rows = pyramid.getRows(level);
+            int cols = pyramid.getCols(level);
+            int r0 = firstVisible(viewY, level) / TILE;
+            int r1 = (lastVisible(viewY, getHeight(), level, rows) + TILE - 1) / TILE;
+            int c0 = firstVisible(viewX, level) / TILE;
+            int c1 = (lastVisible(viewX, mainWidth, level, cols) + TILE - 1) / TILE;
+            // Enough to repaint without rebuilding any tile
+            tileBudget = Math.max(MAX_TILES, 2 * Math.max(0, r1 - r0) * Math.max(0, c1 - c0));
+            for (int tr = r0; tr < r1; tr++) {
+                for (int tc = c0; tc < c1; tc++) {
+                    BufferedImage tile = getTile(level, tr, tc);
+                    // Both edges rounded the same way, so neighbouring tiles meet exactly
+                    int x = screenX((double) tc * TILE * (1 << level));
+                    int y = screenY((double) tr * TILE * (1 << level));
+                    int x2 = screenX(((double) tc * TILE + tile.getWidth()) * (1 << level));
+                    int y2 = screenY(((double) tr * TILE + tile.getHeight()) * (1 << level));
+                    g2d.drawImage(tile, x, y, x2 - x, y2 - y, null);
+                }
+            }
+        }
+
+        // Colours are written a row at a time through the raster, which keeps
+        // the tile eligible for hardware acceleration
+        private BufferedImage getTile(int level, int tileRow, int tileCol) {
+            long key = (long) level << 56 | (long) tileRow << 28 | tileCol;
+            BufferedImage tile = tiles.get(key);
+            if (tile != null) {
+                return tile;
+            }
+            int rowStart = tileRow * TILE;
+            int colStart = tileCol * TILE;
+            int height = Math.min(TILE, pyramid.getRows(level) - rowStart);
+            int width = Math.min(TILE, pyramid.getCols(level) - colStart);
+            double min = pyramid.getMinHeight();
+            double max = pyramid.getMaxHeight();
+            double toIndex = max > min ? (HEIGHT_LUT.length - 1) / (max - min) : 0;
+
+            tile = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            WritableRaster raster = tile.getRaster();
+            int[] row = new int[width];
+            for (int r = 0; r < height; r++) {
+                for (int c = 0; c < width; c++) {
+                    double h = pyramid.getMean(level, rowStart + r, colStart + c);
+                    row[c] = HEIGHT_LUT[(int) ((h - min) * toIndex)];
+                }
+                raster.setDataElements(0, r, width, 1, row);
+            }
+            tiles.put(key, tile);
+            return tile;
         }
 
-        private Color interpolateColor(Color c1, Color c2, float ratio) {
-            int red = (int) (c1.getRed() + (c2.getRed() - c1.getRed()) * ratio);
-            int green = (int) (c1.getGreen() + (c2.getGreen() - c1.getGreen()) * ratio);
-            int blue = (int) (c1.getBlue() + (c2.getBlue() - c1.getBlue()) * ratio);
-            return new Color(red, green, blue);
+        private void drawFrontier(Graphics2D g2d, int mainWidth) {
+            if (frontier == null) {
+                return;
+            }
+            int r0 = firstVisible(viewY, 0);
+            int r1 = lastVisible(viewY, getHeight(), 0, graph.getRows());
+            int c0 = firstVisible(viewX, 0);
+            int c1 = lastVisible(viewX, mainWidth, 0, graph.getCols());
+            if (r0 < r1 && c0 < c1) {
+                g2d.drawImage(frontier, screenX(c0), screenY(r0), screenX(c1), screenY(r1),
+                              c0, r0, c1, r1, null);
+            }
         }
 
-        private void drawHeightLegend(Graphics2D g2d, int xPosition, double maxHeight) {
+        // Paths are drawn a level cell at a time, so a long path costs
+        // about as much as it spans on screen
+        private void drawPaths(Graphics2D g2d, int level, int mainWidth) {
+            if (pathTexels == null || pathLevel != level) {
+                pathTexels = new int[results.size()][];
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i) != null) {
+                        pathTexels[i] = decimate(results.get(i).getCells(graph), level);
+                    }
+                }
+                pathLevel = level;
+            }
+            int cols = pyramid.getCols(level);
+            int size = 1 << level;
+            Composite composite = g2d.getComposite();
+            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
+            for (int i = 0; i < pathTexels.length; i++) {
+                if (pathTexels[i] == null) {
+                    continue;
+                }
+                g2d.setColor(PATH_COLORS[i]);
+                for (int texel : pathTexels[i]) {
+                    int x = screenX((double) (texel % cols) * size);
+                    int y = screenY((double) (texel / cols) * size);
+                    if (x < mainWidth && y < getHeight()) {
+                        int x2 = screenX((double) (texel % cols + 1) * size);
+                        int y2 = screenY((double) (texel / cols + 1) * size);
+                        if (x2 >= 0 && y2 >= 0) {
+                            g2d.fillRect(x, y, Math.max(1, x2 - x), Math.max(1, y2 - y));
+                        }
+                    }
+                }
+            }
+            g2d.setComposite(composite);
+        }
+
+        // The level cells a path passes through, consecutive repeats dropped
+        private int[] decimate(int[] cells, int level) {
+            int cols = pyramid.getCols(level);
+            int[] texels = new int[cells.length];
+            int length = 0;
+            for (int cell : cells) {
+                int texel = (graph.getRow(cell) >> level) * cols + (graph.getCol(cell) >> level);
+                if (length == 0 || texels[length - 1] != texel) {
+                    texels[length++] = texel;
+                }
+            }
+            return Arrays.copyOf(texels, length);
+        }
+
+        private void drawHeightLegend(Graphics2D g2d, int xPosition, double minHeight, double maxHeight) {
             int legendHeight = getHeight() - 60; // Leave space for timing info
             int legendX = xPosition + 10;
             
             // Draw gradient
             for (int y = 0; y < legendHeight; y++) {
                 float normalizedHeight = 1.0f - ((float)y / legendHeight);
-                g2d.setColor(getHeightColor(normalizedHeight));
+                g2d.setColor(new Color(HEIGHT_LUT[(int) (normalizedHeight * (HEIGHT_LUT.length - 1))]));
                 g2d.fillRect(legendX, y, LEGEND_WIDTH - 20, 1);
             }
 
@@ -136,30 +389,16 @@ public class GraphVisualizer {
             // Draw height labels
             g2d.setFont(new Font("Arial", Font.PLAIN, 10));
             g2d.drawString(String.format("%.1f", maxHeight), legendX + LEGEND_WIDTH - 15, 10);
-            g2d.drawString("0.0", legendX + LEGEND_WIDTH - 15, legendHeight - 5);
+            g2d.drawString(String.format("%.1f", minHeight), legendX + LEGEND_WIDTH - 15, legendHeight - 5);
             g2d.drawString("Height", legendX, legendHeight + 15);
         }
 
-        private void drawPaths(Graphics2D g2d, double w, double h) {
-            g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.5f));
-            for (int i = 0; i < results.size(); i++) {
-                drawPath(g2d, results.get(i).getPath(), PATH_COLORS[i], w, h);
-            }
-        }
-
-        private void drawPath(Graphics2D g2d, List<Node> path, Color color, double w, double h) {
-            g2d.setColor(color);
-            for (Node n : path) {
-                g2d.fillRect((int)(n.getCol() * w), (int)(n.getRow() * h), 
-                            (int)w + 1, (int)h + 1);
-            }
-        }
-
-        private void highlightNode(Graphics2D g2d, Node n, Color color, double w, double h) {
+        private void highlightNode(Graphics2D g2d, Node n, Color color) {
+            int x = screenX(n.getCol());
+            int y = screenY(n.getRow());
             g2d.setColor(color);
             g2d.setStroke(new BasicStroke(3));
-            g2d.drawRect((int)(n.getCol() * w), (int)(n.getRow() * h), 
-                        (int)w, (int)h);
+            g2d.drawRect(x, y, Math.max(3, screenX(n.getCol() + 1) - x), Math.max(3, screenY(n.getRow() + 1) - y));
         }
     }
 }
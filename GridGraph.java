@@ -1,73 +1,403 @@
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class GridGraph {
+    // NODE_OBJECTS is the original layout: one Node per cell plus a HashMap of
+    // neighbour lists. The FLAT_* layouts keep only the heights and build
+    // Nodes and neighbours on demand. A graph over a caller's HeightField
+    // reports FLAT_FLOAT for a FloatHeightField and FLAT_DOUBLE for anything
+    // else, mapped and tiled fields included; ask the field's
+    // getHeapBytesPerCell() what its heights actually take.
+    public enum StorageMode { NODE_OBJECTS, FLAT_DOUBLE, FLAT_FLOAT }
+
+    // Moves a cell has: the four straight steps, plus the diagonals, plus the
+    // eight knight moves ((1, 2) and its mirror images). Costs scale with the
+    // length of the move (1, sqrt 2, sqrt 5).
+    public enum Connectivity {
+        FOUR(4), EIGHT(8), SIXTEEN(16);
+
+        private final int directions;
+
+        Connectivity(int directions) { this.directions = directions; }
+
+        public int getDirectionCount() { return directions; }
+    }
+
+    // Whether a diagonal or knight move may slip past the two cells beside
+    // it: for a diagonal step the two cells sharing the corner it cuts, for a
+    // knight move the two it passes between. A side cell is open if the moves
+    // from -> side and side -> to both have a finite cost, so this only
+    // matters with a cost model that can refuse moves (e.g. maxClimb).
+    // Forbidden moves cost +infinity.
+    public enum CornerCutting {
+        ALLOW,         // the move's own cost is all that counts
+        ONE_SIDE_OPEN, // no squeezing between two closed sides
+        NO_CUTTING     // both sides open
+    }
+
+    // Up, down, left, right - same order the adjacency lists were built in -
+    // then diagonals and knight moves. Each connectivity uses a prefix, and
+    // opposite directions come in pairs (dir ^ 1).
+    private static final int[] DR = {-1, 1, 0, 0, -1, 1, -1, 1, -2, 2, -2, 2, -1, 1, -1, 1};
+    private static final int[] DC = {0, 0, -1, 1, -1, 1, 1, -1, -1, 1, 1, -1, -2, 2, 2, -2};
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 5, 4, 7, 6, 9, 8, 11, 10, 13, 12, 15, 14};
+    private static final double[] DISTANCE = new double[DR.length];
+    // The two cells beside each non-straight move, as offsets from its start
+    private static final int[][] SIDE_DR = new int[2][DR.length];
+    private static final int[][] SIDE_DC = new int[2][DR.length];
+    static {
+        for (int dir = 0; dir < DR.length; dir++) {
+            DISTANCE[dir] = Math.sqrt(DR[dir] * DR[dir] + DC[dir] * DC[dir]);
+            if (Math.abs(DR[dir]) == 2) {
+                SIDE_DR[0][dir] = DR[dir] / 2;
+                SIDE_DR[1][dir] = DR[dir] / 2;
+                SIDE_DC[1][dir] = DC[dir];
+            } else if (Math.abs(DC[dir]) == 2) {
+                SIDE_DC[0][dir] = DC[dir] / 2;
+                SIDE_DR[1][dir] = DR[dir];
+                SIDE_DC[1][dir] = DC[dir] / 2;
+            } else {
+                SIDE_DR[0][dir] = DR[dir];
+                SIDE_DC[1][dir] = DC[dir];
+            }
+        }
+    }
+
     private final int rows;
     private final int cols;
-    private final Node[][] nodes;
-    private final Map<Node, List<Node>> adjacencyList; // Add this field
+    private final StorageMode storageMode;
+    private final HeightField heights;
+    private final Node[][] nodes; // null unless NODE_OBJECTS
+    private final Map<Node, List<Node>> adjacencyList; // null unless NODE_OBJECTS
+    private final CostModel costModel;
+    private final Connectivity connectivity;
+    private final CornerCutting cornerCutting;
+    private final int directions;
+    private final double[] edgeCosts; // [cell * directions + dir], null unless precomputed
+    private final List<HeightChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long version; // bumped by every setHeight
 
     public GridGraph(double[][] heightMap) {
+        this(heightMap, StorageMode.NODE_OBJECTS);
+    }
+
+    public GridGraph(double[][] heightMap, StorageMode storageMode) {
+        this(heightMap, storageMode, SlopeCostModel.DEFAULT, false);
+    }
+
+    // precomputeCosts stores every directed edge's cost at build time
+    // (8 bytes per cell per direction) so searches read it instead of
+    // asking the cost model on each relaxation
+    public GridGraph(double[][] heightMap, StorageMode storageMode, CostModel costModel, boolean precomputeCosts) {
+        this(heightMap, storageMode, costModel, precomputeCosts, Connectivity.FOUR, CornerCutting.ALLOW);
+    }
+
+    public GridGraph(double[][] heightMap, StorageMode storageMode, CostModel costModel, boolean precomputeCosts,
+                     Connectivity connectivity, CornerCutting cornerCutting) {
         this.rows = heightMap.length;
         this.cols = heightMap[0].length;
-        this.nodes = new Node[rows][cols];
-        this.adjacencyList = new HashMap<>();
+        this.storageMode = storageMode;
+        this.costModel = costModel;
+        this.connectivity = connectivity;
+        this.cornerCutting = cornerCutting;
+        this.directions = connectivity.getDirectionCount();
 
-        // Create nodes
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                nodes[r][c] = new Node(r, c, heightMap[r][c]);
+        if (storageMode == StorageMode.FLAT_DOUBLE) {
+            this.heights = new ArrayHeightField(heightMap);
+            this.nodes = null;
+            this.adjacencyList = null;
+        } else if (storageMode == StorageMode.FLAT_FLOAT) {
+            this.heights = new FloatHeightField(heightMap);
+            this.nodes = null;
+            this.adjacencyList = null;
+        } else {
+            this.nodes = new Node[rows][cols];
+            this.adjacencyList = new HashMap<>();
+
+            // Create nodes
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    nodes[r][c] = new Node(r, c, heightMap[r][c]);
+                }
             }
+
+            // Initialize adjacency lists
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    Node current = nodes[r][c];
+                    List<Node> neighbors = new ArrayList<>(directions);
+                    for (int dir = 0; dir < directions; dir++) {
+                        int nr = r + DR[dir];
+                        int nc = c + DC[dir];
+                        if (nr >= 0 && nr < rows && nc >= 0 && nc < cols) {
+                            neighbors.add(nodes[nr][nc]);
+                        }
+                    }
+                    adjacencyList.put(current, neighbors);
+                }
+            }
+            this.heights = new NodeHeights(nodes);
         }
+        this.edgeCosts = precomputeCosts ? buildEdgeCosts() : null;
+    }
 
-        // Initialize adjacency lists
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Node current = nodes[r][c];
-                adjacencyList.put(current, new ArrayList<>());
-                if (r > 0) adjacencyList.get(current).add(nodes[r-1][c]);
-                if (r < rows-1) adjacencyList.get(current).add(nodes[r+1][c]);
-                if (c > 0) adjacencyList.get(current).add(nodes[r][c-1]);
-                if (c < cols-1) adjacencyList.get(current).add(nodes[r][c+1]);
+    // Compact graph that reads heights straight from the given field
+    public GridGraph(HeightField heights) {
+        this(heights, SlopeCostModel.DEFAULT, false);
+    }
+
+    public GridGraph(HeightField heights, CostModel costModel, boolean precomputeCosts) {
+        this(heights, costModel, precomputeCosts, Connectivity.FOUR, CornerCutting.ALLOW);
+    }
+
+    public GridGraph(HeightField heights, CostModel costModel, boolean precomputeCosts,
+                     Connectivity connectivity, CornerCutting cornerCutting) {
+        this.rows = heights.getRows();
+        this.cols = heights.getCols();
+        this.storageMode = heights instanceof FloatHeightField ? StorageMode.FLAT_FLOAT : StorageMode.FLAT_DOUBLE;
+        this.heights = heights;
+        this.nodes = null;
+        this.adjacencyList = null;
+        this.costModel = costModel;
+        this.connectivity = connectivity;
+        this.cornerCutting = cornerCutting;
+        this.directions = connectivity.getDirectionCount();
+        this.edgeCosts = precomputeCosts ? buildEdgeCosts() : null;
+    }
+
+    // A cell's edges sit next to each other, so one relaxation loop reads one
+    // cache line. Off-grid directions hold +infinity, like impassable edges.
+    private double[] buildEdgeCosts() {
+        double[] costs = new double[rows * cols * directions];
+        for (int cell = 0; cell < rows * cols; cell++) {
+            for (int dir = 0; dir < directions; dir++) {
+                costs[cell * directions + dir] = computeEdgeCost(cell, dir);
+            }
+        }
+        return costs;
+    }
+
+    private double computeEdgeCost(int cell, int dir) {
+        int next = getNeighborIndex(cell, dir);
+        if (next < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double cost = costModel.getCost(heights.getHeight(cell), heights.getHeight(next), DISTANCE[dir]);
+        if (dir >= 4 && cost < Double.POSITIVE_INFINITY && !isCornerAllowed(cell / cols, cell % cols, dir)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return cost;
+    }
+
+    // False if the corner rule forbids the (diagonal or knight) move from
+    // (r, c) in direction dir; the move must stay on the grid. Row and
+    // column based so SparseAStarPathfinder can use it on grids too big for
+    // int cell ids.
+    public boolean isCornerAllowed(int r, int c, int dir) {
+        if (dir < 4 || cornerCutting == CornerCutting.ALLOW) {
+            return true;
+        }
+        int open = 0;
+        for (int side = 0; side < 2; side++) {
+            if (isSideOpen(r, c, dir, SIDE_DR[side][dir], SIDE_DC[side][dir])) {
+                open++;
             }
         }
+        return open == 2 || (open == 1 && cornerCutting == CornerCutting.ONE_SIDE_OPEN);
     }
 
+    private boolean isSideOpen(int r, int c, int dir, int sdr, int sdc) {
+        double from = heights.getHeight(r, c);
+        double side = heights.getHeight(r + sdr, c + sdc);
+        double to = heights.getHeight(r + DR[dir], c + DC[dir]);
+        int odr = DR[dir] - sdr;
+        int odc = DC[dir] - sdc;
+        return costModel.getCost(from, side, Math.sqrt(sdr * sdr + sdc * sdc)) < Double.POSITIVE_INFINITY
+            && costModel.getCost(side, to, Math.sqrt(odr * odr + odc * odc)) < Double.POSITIVE_INFINITY;
+    }
+
+    // Changes one cell's height: refreshes the precomputed costs of the edges
+    // touching it (and those it's a side cell of), bumps getVersion() and
+    // then tells the listeners. Don't call it while other threads search this
+    // graph. Read-only height fields (mapped, tiled) throw
+    // UnsupportedOperationException.
+    public void setHeight(int r, int c, double height) {
+        int cell = getCellIndex(r, c);
+        double oldHeight = heights.getHeight(cell);
+        if (nodes != null) {
+            Node node = new Node(r, c, height);
+            nodes[r][c] = node;
+            // Neighbour lists hold the Node objects themselves; swap in the new one
+            for (Node neighbor : adjacencyList.get(node)) {
+                List<Node> neighbors = adjacencyList.get(neighbor);
+                neighbors.set(neighbors.indexOf(node), node);
+            }
+        } else {
+            heights.setHeight(r, c, height);
+        }
+        if (edgeCosts != null) {
+            int reach = getEdgeReach();
+            for (int nr = Math.max(0, r - reach); nr <= Math.min(rows - 1, r + reach); nr++) {
+                for (int nc = Math.max(0, c - reach); nc <= Math.min(cols - 1, c + reach); nc++) {
+                    int from = getCellIndex(nr, nc);
+                    for (int dir = 0; dir < directions; dir++) {
+                        edgeCosts[from * directions + dir] = computeEdgeCost(from, dir);
+                    }
+                }
+            }
+        }
+        version++;
+        double newHeight = heights.getHeight(cell);
+        for (HeightChangeListener listener : listeners) {
+            listener.heightChanged(this, cell, oldHeight, newHeight);
+        }
+    }
+
+    // Number of setHeight calls so far; anything derived from the heights
+    // can compare it to tell whether it's stale
+    public long getVersion() { return version; }
+
+    public void addHeightChangeListener(HeightChangeListener listener) { listeners.add(listener); }
+    public void removeHeightChangeListener(HeightChangeListener listener) { listeners.remove(listener); }
+
     public Node getNode(int r, int c) {
-        return nodes[r][c];
+        if (nodes != null) {
+            return nodes[r][c];
+        }
+        return new Node(r, c, heights.getHeight(r, c));
+    }
+
+    public Node getNode(int cell) {
+        return getNode(cell / cols, cell % cols);
     }
 
     public int getRows() { return rows; }
     public int getCols() { return cols; }
+    public StorageMode getStorageMode() { return storageMode; }
+    public HeightField getHeightField() { return heights; }
+    public CostModel getCostModel() { return costModel; }
+    public boolean hasPrecomputedCosts() { return edgeCosts != null; }
+    public Connectivity getConnectivity() { return connectivity; }
+    public CornerCutting getCornerCutting() { return cornerCutting; }
+
+    // Cell ids are row-major: row * cols + col
+    public int getCellIndex(int r, int c) { return r * cols + c; }
+    public int getCellIndex(Node n) { return n.getRow() * cols + n.getCol(); }
+    public int getRow(int cell) { return cell / cols; }
+    public int getCol(int cell) { return cell % cols; }
+    public double getHeight(int cell) { return heights.getHeight(cell); }
+
+    public int getDirectionCount() { return directions; }
+
+    // A height change can alter the edges leaving any cell within this many
+    // rows and columns of it: every move that ends at the cell or passes
+    // beside it starts there. 1, or 2 with knight moves.
+    public int getEdgeReach() { return connectivity == Connectivity.SIXTEEN ? 2 : 1; }
+
+    // Row and column offsets and length of the move in direction dir
+    public static int getRowOffset(int dir) { return DR[dir]; }
+    public static int getColOffset(int dir) { return DC[dir]; }
+    public static double getDistance(int dir) { return DISTANCE[dir]; }
+
+    // Neighbour of cell in the given direction, or -1 if it falls off the grid
+    public int getNeighborIndex(int cell, int dir) {
+        int r = cell / cols + DR[dir];
+        int c = cell % cols + DC[dir];
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            return -1;
+        }
+        return r * cols + c;
+    }
+
+    // Cell with an edge into the given cell from the given direction, or -1.
+    // Backward searches walk these; every move has its opposite in the same
+    // connectivity, so this is the same cell as getNeighborIndex.
+    public int getPredecessorIndex(int cell, int dir) {
+        return getNeighborIndex(cell, dir);
+    }
+
+    // Cost of the edge leaving cell in the given direction; +infinity if it
+    // falls off the grid, can't be taken or cuts a corner it may not
+    public double getEdgeCost(int cell, int dir) {
+        if (edgeCosts != null) {
+            return edgeCosts[cell * directions + dir];
+        }
+        return computeEdgeCost(cell, dir);
+    }
+
+    // Cost of the edge from getPredecessorIndex(cell, dir) into cell
+    public double getIncomingEdgeCost(int cell, int dir) {
+        int previous = getPredecessorIndex(cell, dir);
+        return previous < 0 ? Double.POSITIVE_INFINITY : getEdgeCost(previous, OPPOSITE[dir]);
+    }
 
     public Iterable<Node> getNeighbors(Node n) {
-        return adjacencyList.get(n);
+        if (adjacencyList != null) {
+            return adjacencyList.get(n);
+        }
+        List<Node> neighbors = new ArrayList<>(directions);
+        for (int dir = 0; dir < directions; dir++) {
+            int r = n.getRow() + DR[dir];
+            int c = n.getCol() + DC[dir];
+            if (r >= 0 && r < rows && c >= 0 && c < cols) {
+                neighbors.add(getNode(r, c));
+            }
+        }
+        return neighbors;
     }
 
     // Add this method to get all edges in the graph
     public List<Edge> getEdges() {
         List<Edge> edges = new ArrayList<>();
-        for (Node from : adjacencyList.keySet()) {
-            for (Node to : adjacencyList.get(from)) {
-                edges.add(new Edge(from, to, getCost(from, to)));
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Node from = getNode(r, c);
+                for (Node to : getNeighbors(from)) {
+                    edges.add(new Edge(from, to, getCost(from, to)));
+                }
             }
         }
         return edges;
     }
 
+    // The cost model's price for moving between the two cells, scaled by
+    // their distance; see CostModel. Doesn't apply the corner rule, which
+    // getEdgeCost does.
     public double getCost(Node from, Node to) {
-        double h1 = from.getHeight();
-        double h2 = to.getHeight();
-        double heightDiff = Math.abs(h2 - h1);
-        
-        if (heightDiff < 0.0001) {
-            return 5.0; // flat ground - base cost
-        } else if (h2 < h1) {
-            // Downhill
-            return Math.max(2.0, 5.0 - (heightDiff * 0.5));
-        } else {
-            // Uphill: steeper penalty for climbing
-            return 5.0 + (heightDiff * 20.0);
-        }
+        return costModel.getCost(from.getHeight(), to.getHeight(),
+                                 distance(from.getRow() - to.getRow(), from.getCol() - to.getCol()));
+    }
+
+    public double getCost(int from, int to) {
+        return costModel.getCost(heights.getHeight(from), heights.getHeight(to),
+                                 distance(from / cols - to / cols, from % cols - to % cols));
+    }
+
+    private static double distance(int dr, int dc) {
+        int squared = dr * dr + dc * dc;
+        return squared == 1 ? 1.0 : Math.sqrt(squared);
+    }
+
+    // Lower bounds of the cost model, for heuristics: no step costs less
+    // than getMinStepCost(), and every unit of height gained on a step adds
+    // getClimbCost() on top of that
+    public double getMinStepCost() { return costModel.getMinStepCost(); }
+    public double getClimbCost() { return costModel.getClimbCost(); }
+
+    // HeightField view over the Node objects so both layouts share one read path
+    private static class NodeHeights implements HeightField {
+        private final Node[][] nodes;
+
+        NodeHeights(Node[][] nodes) { this.nodes = nodes; }
+
+        @Override
+        public int getRows() { return nodes.length; }
+
+        @Override
+        public int getCols() { return nodes[0].length; }
+
+        @Override
+        public double getHeight(int row, int col) { return nodes[row][col].getHeight(); }
     }
 }
 
@@ -0,0 +1,286 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+// Command-line batch runner for servers and containers. Generates a map,
+// runs every query with every selected algorithm and streams one record per
+// query as it finishes, then one summary record per algorithm with latency
+// percentiles. Touches no AWT/Swing class, so it starts without a display.
+// `java Main --headless ...` works as well without a display, but verifying
+// Main still loads a few dozen AWT classes; launch this class directly where
+// startup time matters.
+//
+// Usage: java HeadlessRunner [options]
+//   --rows 200 --cols 300     map size
+//   --seed 42 --scale 4.25    noise seed and roughness
+//   --max-height 100          heights are noise * max-height
+//   --map file                load a HeightMapFile instead of generating
+//                             (memory-mapped; --rows/--cols etc. are ignored)
+//   --save-map file           write the generated map as a HeightMapFile
+//   --dtype float32|float16   element type for --save-map
+//   --connectivity 4          moves per cell: 4, 8 (diagonals) or 16 (knight moves)
+//   --corners allow           corner rule for 8/16: allow, one_side_open, no_cutting
+//   --algorithms dijkstra,astar,bestfirst,bfs   also: bidirectional, jps, alt, octile,
+//                                               buckets (Dial's, exact)
+//   --queries file            one query per line: startRow startCol endRow endCol
+//                             (spaces or commas; blank lines and # comments skipped)
+//   --random 100              random queries instead of a file
+//   --threads 1               queries in flight at once
+//   --timing false            also measure time spent in heuristic and cost
+//                             evaluation (slows the searches down)
+//   --format csv|jsonl        output format
+//   --output file             instead of stdout
+//
+// Records (CSV columns / JSON keys): record (query or summary), algorithm,
+// query, start_row, start_col, end_row, end_col, cost, path_length, expanded,
+// generated, pushes, pops, peak_open, heuristic_ms, cost_ms (the last two 0
+// without --timing), latency_ms; summary records carry count, mean_ms,
+// p50_ms, p90_ms, p99_ms and max_ms instead of the per-query fields.
+// See SearchStats for what the counters mean.
+public class HeadlessRunner {
+    private static final String CSV_HEADER = "record,algorithm,query,start_row,start_col,end_row,end_col,cost,"
+        + "path_length,expanded,generated,pushes,pops,peak_open,heuristic_ms,cost_ms,latency_ms,"
+        + "count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms";
+
+    // Installed on each worker with --timing; the stats travel on the results
+    private static final SearchListener TIMING = new SearchListener() {
+        @Override
+        public void searchFinished(PathfindingAlgorithm algorithm, PathResult result) {}
+
+        @Override
+        public boolean wantsTiming() { return true; }
+    };
+
+    private static final Map<String, Function<GridGraph, PathfindingAlgorithm>> ALGORITHMS = new LinkedHashMap<>();
+    static {
+        ALGORITHMS.put("dijkstra", graph -> new DijkstraPathfinder());
+        ALGORITHMS.put("astar", graph -> new AStarPathfinder(new ManhattanHeuristic()));
+        ALGORITHMS.put("bestfirst", graph -> new BestFirstPathfinder(new ManhattanHeuristic()));
+        ALGORITHMS.put("bfs", graph -> new BFSPathfinder());
+        ALGORITHMS.put("bidirectional", graph -> new BidirectionalPathfinder(new ManhattanHeuristic()));
+        ALGORITHMS.put("jps", graph -> new JumpPointPathfinder(new ManhattanHeuristic()));
+        ALGORITHMS.put("alt", graph -> new AStarPathfinder(new LandmarkHeuristic(graph, 8)));
+        ALGORITHMS.put("octile", graph -> new AStarPathfinder(new OctileHeuristic()));
+        ALGORITHMS.put("buckets", graph -> new BucketDijkstraPathfinder());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "200"));
+        int cols = Integer.parseInt(options.getOrDefault("cols", "300"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double scale = Double.parseDouble(options.getOrDefault("scale", "4.25"));
+        double maxHeight = Double.parseDouble(options.getOrDefault("max-height", "100"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "1"));
+        boolean timing = Boolean.parseBoolean(options.getOrDefault("timing", "false"));
+        boolean json = "jsonl".equals(options.getOrDefault("format", "csv"));
+        GridGraph.Connectivity connectivity = parseConnectivity(options.getOrDefault("connectivity", "4"));
+        GridGraph.CornerCutting corners = GridGraph.CornerCutting.valueOf(
+            options.getOrDefault("corners", "allow").toUpperCase(Locale.ROOT));
+        String[] names = options.getOrDefault("algorithms", "dijkstra,astar,bestfirst,bfs").split(",");
+        for (String name : names) {
+            if (!ALGORITHMS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown algorithm: " + name + " (known: " + ALGORITHMS.keySet() + ")");
+            }
+        }
+
+        GridGraph graph;
+        if (options.containsKey("map")) {
+            graph = new GridGraph(HeightMapFile.open(Paths.get(options.get("map"))), SlopeCostModel.DEFAULT, false,
+                                  connectivity, corners);
+            rows = graph.getRows();
+            cols = graph.getCols();
+        } else {
+            double[][] heightMap = NoiseMapGenerator.generateHeightMap(rows, cols, scale, seed);
+            for (double[] row : heightMap) {
+                for (int c = 0; c < cols; c++) {
+                    row[c] *= maxHeight;
+                }
+            }
+            graph = new GridGraph(heightMap, GridGraph.StorageMode.FLAT_DOUBLE, SlopeCostModel.DEFAULT, false,
+                                  connectivity, corners);
+        }
+        if (options.containsKey("save-map")) {
+            HeightMapFile.DataType type = HeightMapFile.DataType.valueOf(
+                options.getOrDefault("dtype", "float32").toUpperCase(Locale.ROOT));
+            HeightMapFile.write(Paths.get(options.get("save-map")), graph, scale, seed, type);
+        }
+        int[][] queries = options.containsKey("queries")
+            ? readQueries(options.get("queries"), rows, cols)
+            : randomQueries(Integer.parseInt(options.getOrDefault("random", "100")), rows, cols, seed);
+
+        String output = options.get("output");
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(output == null
+                 ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                 : Files.newBufferedWriter(Paths.get(output))))) {
+            if (!json) {
+                out.println(CSV_HEADER);
+            }
+            for (String name : names) {
+                PathfindingAlgorithm algorithm = ALGORITHMS.get(name).apply(graph);
+                double[] latencies = run(graph, name, algorithm, queries, threads, timing, json, out);
+                out.println(summary(name, latencies, json));
+                out.flush();
+            }
+        }
+    }
+
+    private static GridGraph.Connectivity parseConnectivity(String value) {
+        for (GridGraph.Connectivity connectivity : GridGraph.Connectivity.values()) {
+            if (String.valueOf(connectivity.getDirectionCount()).equals(value)) {
+                return connectivity;
+            }
+        }
+        throw new IllegalArgumentException("Connectivity must be 4, 8 or 16: " + value);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    static int[][] readQueries(String file, int rows, int cols) throws IOException {
+        List<int[]> queries = new ArrayList<>();
+        List<String> lines = Files.readAllLines(Paths.get(file));
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("[\\s,]+");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": expected 4 numbers, got: " + line);
+            }
+            int[] query = Arrays.stream(parts).mapToInt(Integer::parseInt).toArray();
+            if (query[0] < 0 || query[0] >= rows || query[2] < 0 || query[2] >= rows
+                || query[1] < 0 || query[1] >= cols || query[3] < 0 || query[3] >= cols) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": cell outside the " + rows + "x" + cols + " map");
+            }
+            queries.add(query);
+        }
+        return queries.toArray(new int[0][]);
+    }
+
+    private static int[][] randomQueries(int count, int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        int[][] queries = new int[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new int[] {random.nextInt(rows), random.nextInt(cols), random.nextInt(rows), random.nextInt(cols)};
+        }
+        return queries;
+    }
+
+    // BatchPathfinder's workers claim queries in order and print each record
+    // as soon as it's done; returns the latencies in ms, indexed by query
+    private static double[] run(GridGraph graph, String name, PathfindingAlgorithm algorithm, int[][] queries,
+                                int threads, boolean timing, boolean json, PrintWriter out)
+        throws InterruptedException {
+        List<PathQuery> batch = new ArrayList<>(queries.length);
+        for (int[] q : queries) {
+            batch.add(new PathQuery(graph.getNode(q[0], q[1]), graph.getNode(q[2], q[3])));
+        }
+        // The timing listener has to be installed on the thread that searches
+        PathfindingAlgorithm searched = !timing ? algorithm : (g, start, end) -> {
+            SearchStats.setListener(TIMING);
+            try {
+                return algorithm.findPath(g, start, end);
+            } finally {
+                SearchStats.setListener(null);
+            }
+        };
+        double[] latencies = new double[queries.length];
+        BatchPathfinder.ResultListener printer = (i, result, nanos) -> {
+            latencies[i] = nanos / 1e6;
+            String record = queryRecord(name, i, queries[i], result, latencies[i], json);
+            synchronized (out) {
+                out.println(record);
+            }
+        };
+
+        ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            new BatchPathfinder(searched, pool != null ? pool : Runnable::run, Math.max(1, threads))
+                .start(graph, batch, printer).await();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return latencies;
+    }
+
+    private static String queryRecord(String name, int index, int[] q, PathResult result, double latency, boolean json) {
+        int length = result.getPath().size();
+        SearchStats stats = result.getStats();
+        if (json) {
+            return String.format(Locale.ROOT, "{\"record\":\"query\",\"algorithm\":\"%s\",\"query\":%d,"
+                                 + "\"start_row\":%d,\"start_col\":%d,\"end_row\":%d,\"end_col\":%d,\"cost\":%s,"
+                                 + "\"path_length\":%d,\"expanded\":%d,\"generated\":%d,\"pushes\":%d,\"pops\":%d,"
+                                 + "\"peak_open\":%d,\"heuristic_ms\":%.4f,\"cost_ms\":%.4f,\"latency_ms\":%.4f}",
+                                 name, index, q[0], q[1], q[2], q[3], number(result.getSimulatedTime(), true), length,
+                                 stats.getExpanded(), stats.getGenerated(), stats.getPushes(), stats.getPops(),
+                                 stats.getPeakOpenSize(), stats.getHeuristicNanos() / 1e6, stats.getCostNanos() / 1e6,
+                                 latency);
+        }
+        return String.format(Locale.ROOT, "query,%s,%d,%d,%d,%d,%d,%s,%d,%d,%d,%d,%d,%d,%.4f,%.4f,%.4f,,,,,,",
+                             name, index, q[0], q[1], q[2], q[3], number(result.getSimulatedTime(), false), length,
+                             stats.getExpanded(), stats.getGenerated(), stats.getPushes(), stats.getPops(),
+                             stats.getPeakOpenSize(), stats.getHeuristicNanos() / 1e6, stats.getCostNanos() / 1e6,
+                             latency);
+    }
+
+    private static String summary(String name, double[] latencies, boolean json) {
+        double[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(Double.NaN);
+        double max = sorted.length > 0 ? sorted[sorted.length - 1] : Double.NaN;
+        if (json) {
+            return String.format(Locale.ROOT, "{\"record\":\"summary\",\"algorithm\":\"%s\",\"count\":%d,"
+                                 + "\"mean_ms\":%.4f,\"p50_ms\":%.4f,\"p90_ms\":%.4f,\"p99_ms\":%.4f,\"max_ms\":%.4f}",
+                                 name, sorted.length, mean, percentile(sorted, 50), percentile(sorted, 90),
+                                 percentile(sorted, 99), max);
+        }
+        return String.format(Locale.ROOT, "summary,%s,,,,,,,,,,,,,,,,%d,%.4f,%.4f,%.4f,%.4f,%.4f", name, sorted.length, mean,
+                             percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), max);
+    }
+
+    // Nearest-rank percentile of an ascending array
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    // Unreachable ends cost infinity, which neither format can represent
+    private static String number(double value, boolean json) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.4f", value) : json ? "null" : "";
+    }
+}
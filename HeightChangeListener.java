@@ -0,0 +1,6 @@
+// Told by GridGraph.setHeight that a cell's height, and so the cost of its
+// edges, has changed. Runs on the thread that made the change, after the
+// graph is updated.
+public interface HeightChangeListener {
+    void heightChanged(GridGraph graph, int cell, double oldHeight, double newHeight);
+}
@@ -0,0 +1,22 @@
+// Source of terrain heights laid out as a rows x cols grid. Writable fields
+// override setHeight; change heights through GridGraph.setHeight so costs
+// and listeners stay in step.
+public interface HeightField {
+    int getRows();
+    int getCols();
+    double getHeight(int row, int col);
+
+    // Row-major access (index = row * cols + col); flat array fields override this
+    default double getHeight(int index) {
+        return getHeight(index / getCols(), index % getCols());
+    }
+
+    // Heap the heights take, per cell of the grid: 8 for a double[], 0 for
+    // fields that map a file or compute heights on demand. Estimates and
+    // reports use this rather than GridGraph's StorageMode.
+    default double getHeapBytesPerCell() { return 0; }
+
+    default void setHeight(int row, int col, double height) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is read-only");
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Binary heightmap format, so a prebuilt map can be reopened instead of
+// regenerated. Little-endian; a 64-byte header, then rows * cols heights in
+// row-major order:
+//   0  magic "HMAP"        4  version (1)
+//      (bytes 48 4D 41 50)
+//   8  rows               12  cols
+//   16 data type (0 float32, 1 float16)
+//   24 scale (double)     32  seed (long)   -- the noise parameters, if any
+//   40 .. 63 reserved (zero)
+//
+// open() maps the file read-only instead of reading it, so startup costs the
+// same for any size and the OS pages heights in as searches touch them.
+// float16 halves the file but keeps only 11 significant bits: heights up to
+// 128 land within 1/32 of their value.
+public final class HeightMapFile {
+    public enum DataType {
+        FLOAT32(4), FLOAT16(2);
+
+        final int bytes;
+
+        DataType(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    static final int MAGIC = 0x50414D48; // the bytes "HMAP" read as a little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private HeightMapFile() {}
+
+    public static void write(Path file, GridGraph graph, double scale, long seed, DataType type) throws IOException {
+        write(file, graph.getHeightField(), scale, seed, type);
+    }
+
+    public static void write(Path file, HeightField heights, double scale, long seed, DataType type) throws IOException {
+        int rows = heights.getRows();
+        int cols = heights.getCols();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(type.ordinal()).putInt(0)
+                .putDouble(scale).putLong(seed);
+            header.clear();
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    if (buffer.remaining() < type.bytes) {
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                    }
+                    double h = heights.getHeight(r, c);
+                    if (type == DataType.FLOAT16) {
+                        buffer.putShort(toHalf((float) h));
+                    } else {
+                        buffer.putFloat((float) h);
+                    }
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+        }
+    }
+
+    public static MappedHeightField open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // keep reading until the header is full or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a heightmap file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + ": unsupported heightmap version " + header.getInt(4));
+            }
+            int rows = header.getInt(8);
+            int cols = header.getInt(12);
+            int typeCode = header.getInt(16);
+            if (rows < 1 || cols < 1 || typeCode < 0 || typeCode >= DataType.values().length) {
+                throw new IOException(file + ": corrupt heightmap header");
+            }
+            DataType type = DataType.values()[typeCode];
+            long expected = HEADER_BYTES + (long) rows * cols * type.bytes;
+            if (channel.size() < expected) {
+                throw new IOException(file + " is truncated: " + channel.size() + " bytes, expected " + expected);
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedHeightField(channel, rows, cols, type, header.getDouble(24), header.getLong(32));
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // IEEE 754 binary16, round to nearest even; overflow goes to infinity,
+    // values below the smallest subnormal to (signed) zero
+    static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+        if (exponent == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0)); // inf or NaN
+        }
+        int e = exponent - 127 + 15;
+        if (e >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (e <= 0) {
+            if (e < -10) {
+                return (short) sign;
+            }
+            // Subnormal: shift the mantissa (with its implicit 1) into place
+            mantissa |= 0x800000;
+            int shift = 14 - e;
+            int half = mantissa >>> shift;
+            int rest = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rest > halfway || (rest == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (e << 10) | (mantissa >>> 13);
+        int rest = mantissa & 0x1FFF;
+        if (rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0)) {
+            half++; // may carry into the exponent, which is still the right result
+        }
+        return (short) (sign | half);
+    }
+
+    static float fromHalf(short value) {
+        int sign = (value & 0x8000) << 16;
+        int exponent = (value >>> 10) & 0x1F;
+        int mantissa = value & 0x3FF;
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            // Zero or subnormal: mantissa * 2^-24
+            float magnitude = mantissa * 0x1.0p-24f;
+            return sign != 0 ? -magnitude : magnitude;
+        }
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+}
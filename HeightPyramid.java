@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+// Mipmaps of a GridGraph's heights for drawing maps bigger than the screen.
+// Level 0 is the graph itself; each level above halves both sides, so a
+// cell of level k covers a 2^k x 2^k block of the grid (clipped at the far
+// edges) and keeps that block's minimum, maximum and mean height. The top
+// level is a single cell. Levels 1 and up take 12 bytes per level-1 cell,
+// about 4 bytes per grid cell in all.
+//
+// A snapshot: built in one pass over the grid, it remembers
+// GridGraph.getVersion() and is stale once that moves on. Immutable, so
+// safe to share between threads once built.
+public class HeightPyramid {
+    private final GridGraph graph;
+    private final long version;
+    private final int[] rows;
+    private final int[] cols;
+    private final float[][] min;
+    private final float[][] max;
+    private final float[][] mean;
+
+    private HeightPyramid(GridGraph graph, long version, int levels) {
+        this.graph = graph;
+        this.version = version;
+        rows = new int[levels];
+        cols = new int[levels];
+        min = new float[levels][];
+        max = new float[levels][];
+        mean = new float[levels][];
+        for (int level = 0; level < levels; level++) {
+            rows[level] = (int) (((long) graph.getRows() + (1L << level) - 1) >> level);
+            cols[level] = (int) (((long) graph.getCols() + (1L << level) - 1) >> level);
+            if (level > 0) {
+                int size = rows[level] * cols[level];
+                min[level] = new float[size];
+                max[level] = new float[size];
+                mean[level] = new float[size];
+            }
+        }
+    }
+
+    public static HeightPyramid build(GridGraph graph) {
+        long version = graph.getVersion();
+        int levels = 1;
+        while (Math.max(graph.getRows(), graph.getCols()) > 1 << (levels - 1)) {
+            levels++;
+        }
+        HeightPyramid pyramid = new HeightPyramid(graph, version, levels);
+        if (levels > 1) {
+            pyramid.buildFirstLevel();
+        }
+        for (int level = 2; level < levels; level++) {
+            pyramid.buildLevel(level);
+        }
+        return pyramid;
+    }
+
+    private void buildFirstLevel() {
+        int gridRows = graph.getRows();
+        int gridCols = graph.getCols();
+        float[] lo = min[1];
+        float[] hi = max[1];
+        float[] sum = mean[1];
+        Arrays.fill(lo, Float.POSITIVE_INFINITY);
+        Arrays.fill(hi, Float.NEGATIVE_INFINITY);
+        for (int r = 0; r < gridRows; r++) {
+            int base = (r >> 1) * cols[1];
+            for (int c = 0; c < gridCols; c++) {
+                float h = (float) graph.getHeight(r * gridCols + c);
+                int i = base + (c >> 1);
+                lo[i] = Math.min(lo[i], h);
+                hi[i] = Math.max(hi[i], h);
+                sum[i] += h;
+            }
+        }
+        for (int r = 0; r < rows[1]; r++) {
+            for (int c = 0; c < cols[1]; c++) {
+                sum[r * cols[1] + c] /= span(1, r, gridRows) * span(1, c, gridCols);
+            }
+        }
+    }
+
+    private void buildLevel(int level) {
+        int below = level - 1;
+        for (int r = 0; r < rows[level]; r++) {
+            for (int c = 0; c < cols[level]; c++) {
+                float lo = Float.POSITIVE_INFINITY;
+                float hi = Float.NEGATIVE_INFINITY;
+                double sum = 0;
+                long count = 0;
+                for (int cr = 2 * r; cr < Math.min(2 * r + 2, rows[below]); cr++) {
+                    for (int cc = 2 * c; cc < Math.min(2 * c + 2, cols[below]); cc++) {
+                        int i = cr * cols[below] + cc;
+                        long cells = (long) span(below, cr, graph.getRows()) * span(below, cc, graph.getCols());
+                        lo = Math.min(lo, min[below][i]);
+                        hi = Math.max(hi, max[below][i]);
+                        sum += (double) mean[below][i] * cells;
+                        count += cells;
+                    }
+                }
+                int i = r * cols[level] + c;
+                min[level][i] = lo;
+                max[level][i] = hi;
+                mean[level][i] = (float) (sum / count);
+            }
+        }
+    }
+
+    // Grid rows (or columns) covered by index at level, out of size
+    private static int span(int level, int index, int size) {
+        return (int) Math.min(1L << level, size - ((long) index << level));
+    }
+
+    public GridGraph getGraph() { return graph; }
+    public long getVersion() { return version; }
+    public boolean isStale() { return version != graph.getVersion(); }
+
+    public int getLevelCount() { return rows.length; }
+    public int getRows(int level) { return rows[level]; }
+    public int getCols(int level) { return cols[level]; }
+
+    public double getMin(int level, int r, int c) {
+        return level == 0 ? graph.getHeight(r * cols[0] + c) : min[level][r * cols[level] + c];
+    }
+
+    public double getMax(int level, int r, int c) {
+        return level == 0 ? graph.getHeight(r * cols[0] + c) : max[level][r * cols[level] + c];
+    }
+
+    public double getMean(int level, int r, int c) {
+        return level == 0 ? graph.getHeight(r * cols[0] + c) : mean[level][r * cols[level] + c];
+    }
+
+    // Over the whole grid
+    public double getMinHeight() { return getMin(getLevelCount() - 1, 0, 0); }
+    public double getMaxHeight() { return getMax(getLevelCount() - 1, 0, 0); }
+}
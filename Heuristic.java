@@ -1,3 +1,8 @@
 public interface Heuristic {
     double estimate(Node a, Node b);
+
+    // Used by the index-based searches; override to skip building Nodes
+    default double estimate(GridGraph graph, int from, int to) {
+        return estimate(graph.getNode(from), graph.getNode(to));
+    }
 }
@@ -0,0 +1,82 @@
+import java.util.Random;
+
+// Checks heuristics against exact costs on random maps. For a few random
+// goals per map, one reverse Dijkstra gives the true cost d(v, goal) from
+// every cell, and then for every cell v and edge v -> w:
+//   admissible:  h(v, goal) <= d(v, goal)
+//   consistent:  h(v, goal) <= getCost(v, w) + h(w, goal)
+// Also reports how tight the bound is on average (h / d over reachable cells).
+// Usage: java HeuristicValidator [size] [maps]
+public class HeuristicValidator {
+    // Dijkstra and landmark costs are stored as float, which is accurate to
+    // about 1e-7 of the largest cost on the map; allow for that rounding
+    private static final double TOLERANCE = 1e-5;
+    private static final int GOALS_PER_MAP = 3;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int maps = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] names = {"Manhattan", "Cost/Manh", "Cost/Octile", "Cost/Eucl", "ALT-8"};
+        long[] inadmissible = new long[names.length];
+        long[] inconsistent = new long[names.length];
+        double[] tightness = new double[names.length];
+        long samples = 0;
+
+        Random random = new Random(1L);
+        for (int map = 0; map < maps; map++) {
+            // Alternate raw and terraced terrain so flat and sloped costs both show up
+            GridGraph graph = ComparisonRunner.terraced(size, size, random.nextLong(), map % 2 == 0 ? 0 : 10.0);
+            Heuristic[] heuristics = {
+                new ManhattanHeuristic(),
+                new CostModelHeuristic(graph, CostModelHeuristic.Metric.MANHATTAN),
+                new CostModelHeuristic(graph, CostModelHeuristic.Metric.OCTILE),
+                new CostModelHeuristic(graph, CostModelHeuristic.Metric.EUCLIDEAN),
+                new LandmarkHeuristic(graph, 8)
+            };
+            int cells = size * size;
+            float[] exact = new float[cells];
+            for (int g = 0; g < GOALS_PER_MAP; g++) {
+                int goal = random.nextInt(cells);
+                DijkstraPathfinder.computeCosts(graph, goal, true, exact);
+                double slack = 0;
+                for (float d : exact) {
+                    if (d < Float.POSITIVE_INFINITY) {
+                        slack = Math.max(slack, d * TOLERANCE);
+                    }
+                }
+                for (int v = 0; v < cells; v++) {
+                    if (exact[v] == Float.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    samples++;
+                    for (int i = 0; i < heuristics.length; i++) {
+                        double h = heuristics[i].estimate(graph, v, goal);
+                        if (h > exact[v] + slack) {
+                            inadmissible[i]++;
+                        }
+                        tightness[i] += exact[v] > 0 ? h / exact[v] : 1;
+                        for (int dir = 0; dir < graph.getDirectionCount(); dir++) {
+                            int w = graph.getNeighborIndex(v, dir);
+                            if (w >= 0 && h > graph.getEdgeCost(v, dir) + heuristics[i].estimate(graph, w, goal) + slack) {
+                                inconsistent[i]++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%d maps of %dx%d, %d goals each, %d cell checks%n", maps, size, size, GOALS_PER_MAP, samples);
+        System.out.printf("%-12s %14s %14s %10s%n", "heuristic", "inadmissible", "inconsistent", "avg h/d");
+        boolean valid = true;
+        for (int i = 0; i < names.length; i++) {
+            System.out.printf("%-12s %14d %14d %10.3f%n", names[i], inadmissible[i], inconsistent[i],
+                              tightness[i] / samples);
+            valid &= inadmissible[i] == 0 && inconsistent[i] == 0;
+        }
+        if (!valid) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.Arrays;
+import java.util.List;
+
+// HPA*: searches a precomputed ClusterAbstraction instead of the grid, then
+// refines only the abstract edges on the chosen route back into grid cells.
+// Start and end are linked into the abstract graph per query with one
+// search inside their clusters (a forward one from start, a backward one
+// into end, since costs are directed). Paths are near-optimal, not optimal:
+// the route has to cross cluster borders at transition cells.
+public class HierarchicalPathfinder implements PathfindingAlgorithm {
+    private final ClusterAbstraction abstraction;
+    private final Heuristic heuristic;
+
+    public HierarchicalPathfinder(ClusterAbstraction abstraction, Heuristic heuristic) {
+        this.abstraction = abstraction;
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        if (graph != abstraction.getGraph()) {
+            throw new IllegalArgumentException("Abstraction was built for a different graph");
+        }
+        int source = graph.getCellIndex(start);
+        int target = graph.getCellIndex(end);
+        int sourceCluster = abstraction.getCluster(source);
+        int targetCluster = abstraction.getCluster(target);
+        int size = abstraction.getClusterSize();
+        SearchStats stats = SearchStats.EMPTY;
+
+        SearchContext local = SearchContextPool.borrow(size, size);
+        SearchContext top = SearchContextPool.borrow(1, abstraction.getNodeCount() + 2);
+        try {
+            // Costs from start to its cluster's nodes (and straight to end if it's in the same cluster)
+            int[] startNodes = abstraction.getClusterNodes(sourceCluster);
+            double[] startCost = new double[startNodes.length];
+            abstraction.searchCluster(local, sourceCluster, source, -1, false, null);
+            stats = stats.plus(local.getStats());
+            for (int i = 0; i < startNodes.length; i++) {
+                startCost[i] = local.getCost(abstraction.localIndex(sourceCluster, abstraction.getNodeCell(startNodes[i])));
+            }
+            double direct = sourceCluster == targetCluster
+                ? local.getCost(abstraction.localIndex(sourceCluster, target))
+                : Double.POSITIVE_INFINITY;
+
+            // Costs from end's cluster nodes into end
+            int[] endNodes = abstraction.getClusterNodes(targetCluster);
+            double[] endCost = new double[endNodes.length];
+            abstraction.searchCluster(local, targetCluster, target, -1, true, null);
+            stats = stats.plus(local.getStats());
+            for (int i = 0; i < endNodes.length; i++) {
+                endCost[i] = local.getCost(abstraction.localIndex(targetCluster, abstraction.getNodeCell(endNodes[i])));
+            }
+
+            int[] route = searchAbstract(graph, top, source, target, targetCluster, startNodes, startCost, endCost, direct);
+            stats = stats.plus(top.getStats());
+            if (route == null) {
+                return SearchStats.report(this, new PathResult(List.of(), Double.POSITIVE_INFINITY, stats));
+            }
+
+            int[] cells = new int[16];
+            int length = 0;
+            cells[length++] = source;
+            for (int i = 1; i < route.length; i++) {
+                int from = cells[length - 1];
+                int to = route[i];
+                if (from == to) {
+                    continue;
+                }
+                int cluster = abstraction.getCluster(from);
+                if (cluster != abstraction.getCluster(to)) {
+                    // Inter edge: the two cells are neighbours across the border
+                    if (length == cells.length) {
+                        cells = Arrays.copyOf(cells, length * 2);
+                    }
+                    cells[length++] = to;
+                    continue;
+                }
+                abstraction.searchCluster(local, cluster, from, to, false, heuristic);
+                stats = stats.plus(local.getStats());
+                int[] segment = local.pathCells(abstraction.localIndex(cluster, from), abstraction.localIndex(cluster, to));
+                if (length + segment.length > cells.length) {
+                    cells = Arrays.copyOf(cells, Math.max(cells.length * 2, length + segment.length));
+                }
+                for (int j = 1; j < segment.length; j++) {
+                    cells[length++] = abstraction.cellOf(cluster, segment[j]);
+                }
+            }
+
+            int[] path = Arrays.copyOf(cells, length);
+            double cost = 0;
+            for (int i = 1; i < length; i++) {
+                cost += graph.getCost(path[i - 1], path[i]);
+            }
+            return SearchStats.report(this, new PathResult(graph, path, cost, stats));
+        } finally {
+            SearchContextPool.release(top);
+            SearchContextPool.release(local);
+        }
+    }
+
+    // A* over the abstract nodes plus two temporary ones for start and end.
+    // Returns the grid cells of the abstract route, start first, or null.
+    private int[] searchAbstract(GridGraph graph, SearchContext context, int source, int target, int targetCluster,
+                                 int[] startNodes, double[] startCost, double[] endCost, double direct) {
+        int startId = abstraction.getNodeCount();
+        int endId = startId + 1;
+        IndexedMinHeap openSet = context.getOpenSet();
+        context.setCost(startId, 0, -1);
+        openSet.insertOrDecrease(startId, context.estimate(heuristic, graph, source, target));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (current == endId) {
+                break;
+            }
+            context.close(current);
+            double g = context.getCost(current);
+
+            if (current == startId) {
+                for (int i = 0; i < startNodes.length; i++) {
+                    relax(graph, context, current, startNodes[i], g + startCost[i], target);
+                }
+                relax(graph, context, current, endId, g + direct, target);
+                continue;
+            }
+            int[] targets = abstraction.getEdgeTargets(current);
+            double[] costs = abstraction.getEdgeCosts(current);
+            for (int i = 0; i < targets.length; i++) {
+                relax(graph, context, current, targets[i], g + costs[i], target);
+            }
+            if (abstraction.getNodeCluster(current) == targetCluster) {
+                relax(graph, context, current, endId, g + endCost[abstraction.getNodeSlot(current)], target);
+            }
+        }
+
+        if (!context.isSeen(endId)) {
+            return null;
+        }
+        int[] ids = context.pathCells(startId, endId);
+        int[] cells = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            cells[i] = ids[i] == startId ? source : ids[i] == endId ? target : abstraction.getNodeCell(ids[i]);
+        }
+        return cells;
+    }
+
+    private void relax(GridGraph graph, SearchContext context, int from, int to, double cost, int target) {
+        if (cost == Double.POSITIVE_INFINITY || context.isClosed(to) || cost >= context.getCost(to)) {
+            return;
+        }
+        context.setCost(to, cost, from);
+        double h = to < abstraction.getNodeCount()
+            ? context.estimate(heuristic, graph, abstraction.getNodeCell(to), target)
+            : 0;
+        context.getOpenSet().insertOrDecrease(to, cost + h);
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.List;
+
+// A* over int cell ids with an indexed heap (decrease-key instead of duplicate
+// entries). The instance keeps one SearchContext between calls; entries are
+// validated with a generation stamp, so a query never clears O(rows * cols)
+// memory and search() allocates nothing once the context exists.
+// Not thread-safe: use one instance per thread.
+public class IndexedAStarPathfinder implements PathfindingAlgorithm {
+    private final Heuristic heuristic;
+    private SearchContext context;
+
+    private int lastStart = -1;
+    private int lastEnd = -1;
+
+    public IndexedAStarPathfinder(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        double cost = search(graph, graph.getCellIndex(start), graph.getCellIndex(end));
+        if (cost == Double.POSITIVE_INFINITY) {
+            return SearchStats.report(this, new PathResult(List.of(), Double.POSITIVE_INFINITY, context.getStats()));
+        }
+        return SearchStats.report(this, new PathResult(graph, context.pathCells(lastStart, lastEnd), cost,
+                                                       context.getStats()));
+    }
+
+    // Returns the cost of the cheapest path, or +infinity if end is unreachable
+    public double search(GridGraph graph, int start, int end) {
+        if (context == null || context.getRows() != graph.getRows() || context.getCols() != graph.getCols()) {
+            context = new SearchContext(graph.getRows(), graph.getCols());
+        }
+        context.setTiming(SearchStats.isTimingEnabled());
+        context.begin();
+        lastStart = start;
+        lastEnd = end;
+        return run(graph, context, heuristic, start, end);
+    }
+
+    // Work done by the last search
+    public SearchStats getStats() {
+        return context == null ? SearchStats.EMPTY : context.getStats();
+    }
+
+    // Number of cells on the path found by the last search (0 if none)
+    public int getPathLength() {
+        if (context == null || !context.isSeen(lastEnd)) {
+            return 0;
+        }
+        int length = 1;
+        for (int cur = lastEnd; cur != lastStart; cur = context.getParent(cur)) {
+            length++;
+        }
+        return length;
+    }
+
+    // Writes the last path, start first, into out; returns the number of cells
+    public int copyPath(int[] out) {
+        int length = getPathLength();
+        int cur = lastEnd;
+        for (int i = length - 1; i >= 0; i--) {
+            out[i] = cur;
+            cur = context.getParent(cur);
+        }
+        return length;
+    }
+
+    // The A* loop shared with AStarPathfinder; context must be freshly begun
+    static double run(GridGraph graph, SearchContext context, Heuristic heuristic, int start, int end) {
+        IndexedMinHeap openSet = context.getOpenSet();
+        int directions = graph.getDirectionCount();
+
+        context.setCost(start, 0, -1);
+        openSet.insertOrDecrease(start, context.estimate(heuristic, graph, start, end));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (current == end) {
+                return context.getCost(current);
+            }
+            context.close(current);
+
+            double g = context.getCost(current);
+            for (int dir = 0; dir < directions; dir++) {
+                int next = graph.getNeighborIndex(current, dir);
+                if (next < 0 || context.isClosed(next)) {
+                    continue;
+                }
+                double tentativeG = g + context.edgeCost(graph, current, dir);
+                if (tentativeG < context.getCost(next)) {
+                    context.setCost(next, tentativeG, current);
+                    openSet.insertOrDecrease(next, tentativeG + context.estimate(heuristic, graph, next, end));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
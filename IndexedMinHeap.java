@@ -0,0 +1,191 @@
+import java.util.Arrays;
+
+// Binary min-heap over int ids in [0, capacity) with decrease-key.
+// Keys live next to the ids in heap order; pos[] maps an id to its slot (-1 if absent).
+// update() additionally takes a tie key that orders equal keys (D* Lite's
+// two-part keys); ties[] is only allocated once update() is first used.
+public class IndexedMinHeap {
+    private int[] heap;
+    private double[] keys;
+    private double[] ties; // null while every tie is 0
+    private int[] pos;
+    private int size;
+    // Work counters since the last clear()
+    private int pushes;
+    private int decreases;
+    private int pops;
+    private int peakSize;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        keys = new double[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= pos.length) {
+            return;
+        }
+        int old = pos.length;
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        if (ties != null) {
+            ties = Arrays.copyOf(ties, capacity);
+        }
+        pos = Arrays.copyOf(pos, capacity);
+        Arrays.fill(pos, old, capacity, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public boolean contains(int id) { return pos[id] >= 0; }
+    public double getKey(int id) { return keys[pos[id]]; }
+
+    public int getPushCount() { return pushes; }
+    public int getDecreaseCount() { return decreases; }
+    public int getPollCount() { return pops; }
+    public int getPeakSize() { return peakSize; }
+    // Starts measuring the peak again from the current size, for callers
+    // that count work per step without clearing the heap
+    public void resetPeakSize() { peakSize = size; }
+
+    // The queued ids in heap order, as a copy the caller may keep while
+    // updating the heap
+    public int[] toIdArray() { return Arrays.copyOf(heap, size); }
+
+    public int peek() { return heap[0]; }
+    public double peekKey() { return keys[0]; }
+    public double peekTie() { return tie(0); }
+
+    // Adds id, or lowers its key if it is already queued with a larger one.
+    // Returns false when the id was queued with a key <= the given one.
+    public boolean insertOrDecrease(int id, double key) {
+        int i = pos[id];
+        if (i < 0) {
+            i = size++;
+            pushes++;
+            if (size > peakSize) {
+                peakSize = size;
+            }
+        } else if (!less(key, 0, keys[i], tie(i))) {
+            return false;
+        } else {
+            decreases++;
+        }
+        siftUp(i, id, key, 0);
+        return true;
+    }
+
+    // Adds id, or moves it to the new (key, tie) whether that is up or down
+    public void update(int id, double key, double tie) {
+        if (ties == null) {
+            ties = new double[heap.length];
+        }
+        int i = pos[id];
+        if (i < 0) {
+            i = size++;
+            pushes++;
+            if (size > peakSize) {
+                peakSize = size;
+            }
+            siftUp(i, id, key, tie);
+            return;
+        }
+        if (less(key, tie, keys[i], ties[i])) {
+            decreases++;
+        }
+        reposition(i, id, key, tie);
+    }
+
+    // Takes id out of the queue if it is in it
+    public void remove(int id) {
+        int i = pos[id];
+        if (i < 0) {
+            return;
+        }
+        pos[id] = -1;
+        int last = --size;
+        if (i < last) {
+            reposition(i, heap[last], keys[last], tie(last));
+        }
+    }
+
+    public int poll() {
+        int top = heap[0];
+        pos[top] = -1;
+        pops++;
+        int last = --size;
+        if (last > 0) {
+            siftDown(0, heap[last], keys[last], tie(last));
+        }
+        return top;
+    }
+
+    // O(size), not O(capacity): only queued ids have a slot to reset
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+        pushes = 0;
+        decreases = 0;
+        pops = 0;
+        peakSize = 0;
+    }
+
+    // Puts (id, key, tie) at slot i or wherever heap order moves it from there
+    private void reposition(int i, int id, double key, double tie) {
+        if (i > 0 && less(key, tie, keys[(i - 1) >>> 1], tie((i - 1) >>> 1))) {
+            siftUp(i, id, key, tie);
+        } else {
+            siftDown(i, id, key, tie);
+        }
+    }
+
+    private void siftUp(int i, int id, double key, double tie) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(key, tie, keys[parent], tie(parent))) {
+                break;
+            }
+            place(i, heap[parent], keys[parent], tie(parent));
+            i = parent;
+        }
+        place(i, id, key, tie);
+    }
+
+    private void siftDown(int i, int id, double key, double tie) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && less(keys[right], tie(right), keys[child], tie(child))) {
+                child = right;
+            }
+            if (!less(keys[child], tie(child), key, tie)) {
+                break;
+            }
+            place(i, heap[child], keys[child], tie(child));
+            i = child;
+        }
+        place(i, id, key, tie);
+    }
+
+    private static boolean less(double key, double tie, double otherKey, double otherTie) {
+        return key < otherKey || (key == otherKey && tie < otherTie);
+    }
+
+    private double tie(int i) {
+        return ties == null ? 0 : ties[i];
+    }
+
+    private void place(int i, int id, double key, double tie) {
+        heap[i] = id;
+        keys[i] = key;
+        if (ties != null) {
+            ties[i] = tie;
+        }
+        pos[id] = i;
+    }
+}
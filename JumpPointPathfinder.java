@@ -0,0 +1,273 @@
+import java.util.Arrays;
+import java.util.List;
+
+// A* that skips across uniform-cost regions instead of expanding every cell
+// in them. Classic JPS jump rules assume every step costs the same, which only
+// holds on our plateaus, so this uses the rectangle form of the idea
+// (Rectangular Symmetry Reduction, from the JPS authors):
+//
+// The grid is split once into rectangles in which every step, in both
+// directions, has the same cost u. Inside such a rectangle any path between
+// two border cells costs at least u * manhattan distance, and a path with
+// exactly that cost exists that only walks along the border or jumps straight
+// across to the opposite side. So for a border cell the search never steps
+// into the interior; it gets one extra "jump" successor on the far side
+// instead. A start inside a rectangle jumps to all four sides, and the goal's
+// rectangle is expanded normally. Costs stay exactly those of Dijkstra.
+// Everywhere else (varying terrain) it is plain A*.
+//
+// The rectangle argument needs 4-connectivity; on 8- and 16-connected
+// graphs the whole search is plain A*.
+public class JumpPointPathfinder implements PathfindingAlgorithm {
+    private static final int MIN_SIDE = 3; // smaller rectangles have no interior to skip
+
+    private final Heuristic heuristic;
+    private volatile Regions regions;
+
+    public JumpPointPathfinder(Heuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        Regions flat = graph.getConnectivity() == GridGraph.Connectivity.FOUR ? regionsFor(graph) : null;
+        SearchContext context = SearchContextPool.borrow(graph);
+        try {
+            int source = graph.getCellIndex(start);
+            int target = graph.getCellIndex(end);
+            double cost = search(graph, flat, context, source, target);
+            if (cost == Double.POSITIVE_INFINITY) {
+                return SearchStats.report(this, new PathResult(List.of(), Double.POSITIVE_INFINITY, context.getStats()));
+            }
+            int[] cells = context.pathCells(source, target);
+            return SearchStats.report(this, new PathResult(graph, flat != null ? unpack(graph, cells) : cells, cost,
+                                                           context.getStats()));
+        } finally {
+            SearchContextPool.release(context);
+        }
+    }
+
+    // Fraction of cells covered by skippable rectangles, for reporting
+    public double getCoverage(GridGraph graph) {
+        return graph.getConnectivity() == GridGraph.Connectivity.FOUR ? regionsFor(graph).coverage() : 0;
+    }
+
+    private Regions regionsFor(GridGraph graph) {
+        Regions current = regions;
+        if (current == null || current.graph != graph || current.version != graph.getVersion()) {
+            synchronized (this) {
+                current = regions;
+                if (current == null || current.graph != graph || current.version != graph.getVersion()) {
+                    current = Regions.build(graph);
+                    regions = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private double search(GridGraph graph, Regions flat, SearchContext context, int source, int target) {
+        IndexedMinHeap openSet = context.getOpenSet();
+        int directions = graph.getDirectionCount();
+        int cols = graph.getCols();
+        int goalRect = flat != null ? flat.rectOf[target] : -1;
+
+        context.setCost(source, 0, -1);
+        openSet.insertOrDecrease(source, context.estimate(heuristic, graph, source, target));
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            if (current == target) {
+                return context.getCost(current);
+            }
+            context.close(current);
+            double g = context.getCost(current);
+
+            int rect = flat != null ? flat.rectOf[current] : -1;
+            boolean pruned = rect >= 0 && rect != goalRect;
+            for (int dir = 0; dir < directions; dir++) {
+                int next = graph.getNeighborIndex(current, dir);
+                if (next < 0 || (pruned && flat.rectOf[next] == rect && flat.isInterior(rect, next, cols))) {
+                    continue;
+                }
+                relax(graph, context, current, next, g + context.edgeCost(graph, current, dir), target);
+            }
+            if (!pruned) {
+                continue;
+            }
+
+            // Jumps straight across the rectangle
+            int r = current / cols;
+            int c = current % cols;
+            int r0 = flat.top[rect], r1 = flat.bottom[rect], c0 = flat.left[rect], c1 = flat.right[rect];
+            double step = flat.stepCost[rect];
+            boolean rowInside = r > r0 && r < r1;
+            boolean colInside = c > c0 && c < c1;
+            if (rowInside && c != c0) relax(graph, context, current, r * cols + c0, g + step * (c - c0), target);
+            if (rowInside && c != c1) relax(graph, context, current, r * cols + c1, g + step * (c1 - c), target);
+            if (colInside && r != r0) relax(graph, context, current, r0 * cols + c, g + step * (r - r0), target);
+            if (colInside && r != r1) relax(graph, context, current, r1 * cols + c, g + step * (r1 - r), target);
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private void relax(GridGraph graph, SearchContext context, int from, int to, double cost, int target) {
+        if (context.isClosed(to) || cost >= context.getCost(to)) {
+            return;
+        }
+        context.setCost(to, cost, from);
+        context.getOpenSet().insertOrDecrease(to, cost + context.estimate(heuristic, graph, to, target));
+    }
+
+    // Fills in the straight runs a jump skipped
+    private static int[] unpack(GridGraph graph, int[] cells) {
+        int cols = graph.getCols();
+        int length = cells.length;
+        for (int i = 1; i < cells.length; i++) {
+            length += Math.abs(cells[i] / cols - cells[i - 1] / cols) + Math.abs(cells[i] % cols - cells[i - 1] % cols) - 1;
+        }
+        int[] path = new int[length];
+        int k = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                int r = cells[i - 1] / cols, c = cells[i - 1] % cols;
+                int toR = cells[i] / cols, toC = cells[i] % cols;
+                int dr = Integer.signum(toR - r), dc = Integer.signum(toC - c);
+                for (r += dr, c += dc; r != toR || c != toC; r += dr, c += dc) {
+                    path[k++] = r * cols + c;
+                }
+            }
+            path[k++] = cells[i];
+        }
+        return path;
+    }
+
+    // Greedy split of the grid into uniform-cost rectangles, rebuilt once the
+    // graph's heights change
+    private static class Regions {
+        final GridGraph graph;
+        final long version;
+        final int[] rectOf; // -1 for cells outside every rectangle
+        final int[] top, bottom, left, right;
+        final double[] stepCost;
+
+        private Regions(GridGraph graph, int[] rectOf, int[][] bounds, double[] stepCost) {
+            this.graph = graph;
+            this.version = graph.getVersion();
+            this.rectOf = rectOf;
+            this.top = bounds[0];
+            this.bottom = bounds[1];
+            this.left = bounds[2];
+            this.right = bounds[3];
+            this.stepCost = stepCost;
+        }
+
+        boolean isInterior(int rect, int cell, int cols) {
+            int r = cell / cols;
+            int c = cell % cols;
+            return r > top[rect] && r < bottom[rect] && c > left[rect] && c < right[rect];
+        }
+
+        double coverage() {
+            long covered = Arrays.stream(rectOf).filter(id -> id >= 0).count();
+            return (double) covered / rectOf.length;
+        }
+
+        static Regions build(GridGraph graph) {
+            int rows = graph.getRows();
+            int cols = graph.getCols();
+            int[] rectOf = new int[rows * cols];
+            Arrays.fill(rectOf, -1);
+            boolean[] visited = new boolean[rows * cols];
+            int[][] bounds = new int[4][16];
+            double[] stepCost = new double[16];
+            int count = 0;
+
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    int cell = r * cols + c;
+                    if (visited[cell]) {
+                        continue;
+                    }
+                    visited[cell] = true;
+                    if (c + 1 >= cols) {
+                        continue;
+                    }
+                    double u = graph.getCost(cell, cell + 1);
+                    if (u == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    // Grow as a square first (more interior per border cell),
+                    // then stretch right and down as far as whole rows/columns fit
+                    int w = 1;
+                    int h = 1;
+                    while (r + h < rows && c + w < cols
+                           && colFits(graph, visited, c + w, r, h, u)
+                           && rowFits(graph, visited, r + h, c, w + 1, u)) {
+                        w++;
+                        h++;
+                    }
+                    while (c + w < cols && colFits(graph, visited, c + w, r, h, u)) {
+                        w++;
+                    }
+                    while (r + h < rows && rowFits(graph, visited, r + h, c, w, u)) {
+                        h++;
+                    }
+                    if (w < MIN_SIDE || h < MIN_SIDE) {
+                        continue;
+                    }
+                    if (count == stepCost.length) {
+                        for (int i = 0; i < 4; i++) {
+                            bounds[i] = Arrays.copyOf(bounds[i], count * 2);
+                        }
+                        stepCost = Arrays.copyOf(stepCost, count * 2);
+                    }
+                    bounds[0][count] = r;
+                    bounds[1][count] = r + h - 1;
+                    bounds[2][count] = c;
+                    bounds[3][count] = c + w - 1;
+                    stepCost[count] = u;
+                    for (int i = r; i < r + h; i++) {
+                        for (int j = c; j < c + w; j++) {
+                            rectOf[i * cols + j] = count;
+                            visited[i * cols + j] = true;
+                        }
+                    }
+                    count++;
+                }
+            }
+            return new Regions(graph, rectOf, bounds, stepCost);
+        }
+
+        // Row `row` from col c, w wide: free, uniform along itself and with the row above
+        private static boolean rowFits(GridGraph graph, boolean[] visited, int row, int c, int w, double u) {
+            int cols = graph.getCols();
+            int first = row * cols + c;
+            for (int j = 0; j < w; j++) {
+                int cell = first + j;
+                if (visited[cell] || !uniform(graph, cell - cols, cell, u)
+                    || (j > 0 && !uniform(graph, cell - 1, cell, u))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Column `col` from row r, h tall: free, uniform along itself and with the column to its left
+        private static boolean colFits(GridGraph graph, boolean[] visited, int col, int r, int h, double u) {
+            int cols = graph.getCols();
+            for (int i = 0; i < h; i++) {
+                int cell = (r + i) * cols + col;
+                if (visited[cell] || !uniform(graph, cell - 1, cell, u)
+                    || (i > 0 && !uniform(graph, cell - cols, cell, u))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean uniform(GridGraph graph, int a, int b, double u) {
+            return graph.getCost(a, b) == u && graph.getCost(b, a) == u;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.stream.IntStream;
+
+// ALT heuristic (A*, Landmarks, Triangle inequality). For a few landmark cells
+// L the exact costs d(L, v) and d(v, L) are precomputed for every v, and by
+// the triangle inequality
+//   d(a, b) >= d(L, b) - d(L, a)   and   d(a, b) >= d(a, L) - d(b, L)
+// Both tables are needed because getCost isn't symmetric. The estimate is the
+// largest of these bounds, which is admissible and consistent.
+//
+// Tables are float[] (4 bytes per cell per table, 2 tables per landmark) and
+// are built in parallel, one Dijkstra per task. Bound to the graph it was
+// built for, and to its heights: after GridGraph.setHeight the tables may
+// overestimate, so build a new one.
+public class LandmarkHeuristic implements Heuristic {
+    // float keeps ~7 significant digits; shaving this fraction of the larger
+    // table value off each bound keeps rounding from overshooting the true cost
+    private static final double ROUNDING_SLACK = 1e-6;
+
+    private final GridGraph graph;
+    private final int[] landmarks;
+    private final float[][] fromLandmark; // [k][v] = d(landmark k, v)
+    private final float[][] toLandmark;   // [k][v] = d(v, landmark k)
+
+    public LandmarkHeuristic(GridGraph graph, int landmarkCount) {
+        this(graph, pickLandmarks(graph, landmarkCount));
+    }
+
+    public LandmarkHeuristic(GridGraph graph, int[] landmarks) {
+        this.graph = graph;
+        this.landmarks = landmarks.clone();
+        int cells = graph.getRows() * graph.getCols();
+        this.fromLandmark = new float[landmarks.length][cells];
+        this.toLandmark = new float[landmarks.length][cells];
+
+        IntStream.range(0, 2 * landmarks.length).parallel().forEach(task -> {
+            int k = task / 2;
+            boolean reverse = task % 2 == 1;
+            try {
+                DijkstraPathfinder.computeCosts(graph, landmarks[k], reverse, reverse ? toLandmark[k] : fromLandmark[k]);
+            } finally {
+                // Common-pool threads would otherwise keep a full-grid context each
+                SearchContextPool.clearThread();
+            }
+        });
+    }
+
+    // Landmarks spread evenly around the map border, starting at a corner.
+    // Border cells sit "behind" most queries, which is where ALT bounds are tight.
+    public static int[] pickLandmarks(GridGraph graph, int count) {
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        int perimeter = Math.max(1, 2 * (rows + cols) - 4);
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            int step = (int) ((long) i * perimeter / count);
+            int r, c;
+            if (step < cols) {
+                r = 0; c = step;
+            } else if ((step -= cols) < rows - 1) {
+                r = step + 1; c = cols - 1;
+            } else if ((step -= rows - 1) < cols - 1) {
+                r = rows - 1; c = cols - 2 - step;
+            } else {
+                step -= cols - 1;
+                r = rows - 2 - step; c = 0;
+            }
+            picked[i] = graph.getCellIndex(Math.max(0, r), Math.max(0, c));
+        }
+        return picked;
+    }
+
+    public int[] getLandmarks() { return landmarks.clone(); }
+
+    @Override
+    public double estimate(Node a, Node b) {
+        return estimate(graph, graph.getCellIndex(a), graph.getCellIndex(b));
+    }
+
+    @Override
+    public double estimate(GridGraph graph, int from, int to) {
+        if (graph != this.graph) {
+            throw new IllegalArgumentException("Landmark tables were built for a different graph");
+        }
+        double best = 0;
+        for (int k = 0; k < landmarks.length; k++) {
+            float[] fromL = fromLandmark[k];
+            float[] toL = toLandmark[k];
+            double forward = fromL[to] - fromL[from] - ROUNDING_SLACK * fromL[to];
+            double backward = toL[from] - toL[to] - ROUNDING_SLACK * toL[from];
+            // Unreachable cells give inf - inf = NaN, which never wins the comparison
+            if (forward > best) best = forward;
+            if (backward > best) best = backward;
+        }
+        return best;
+    }
+}
@@ -3,6 +3,7 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Collections;
+import java.util.concurrent.ExecutionException;
 
 public class Main {
     private static int gridRows = 200;
@@ -15,8 +16,16 @@ public class Main {
     private static JFrame mainFrame;
     private static JPanel infoPanel; // Add this field
     private static List<PathResult> results; // Add this field at class level
+    private static List<Long> executionTimes;
+    private static List<String> algorithmNames;
+    private static final List<SolveWorker> runningWorkers = new ArrayList<>(); // EDT only
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--headless")) {
+            // No Swing code runs, so this works without a display
+            HeadlessRunner.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SwingUtilities.invokeLater(() -> createAndShowGUI());
     }
 
@@ -35,7 +44,9 @@ public class Main {
         JTextField heightField = new JTextField(String.valueOf(maxHeight), 5);
         JButton generateButton = new JButton("Generate Map");
         JButton solveButton = new JButton("Find Paths");
+        JButton cancelButton = new JButton("Cancel");
         solveButton.setEnabled(false);
+        cancelButton.setEnabled(false);
 
         controlPanel.add(new JLabel("Rows:"));
         controlPanel.add(rowsField);
@@ -45,10 +56,13 @@ public class Main {
         controlPanel.add(heightField);
         controlPanel.add(generateButton);
         controlPanel.add(solveButton);
+        controlPanel.add(cancelButton);
 
         mainFrame.add(controlPanel, BorderLayout.NORTH);
 
         generateButton.addActionListener(e -> {
+            cancelSearches();
+            cancelButton.setEnabled(false);
             try {
                 gridRows = Integer.parseInt(rowsField.getText());
                 gridCols = Integer.parseInt(colsField.getText());
@@ -105,29 +119,38 @@ public class Main {
             algorithmNames.add("Best-First");
             algorithmNames.add("BFS");
 
-            results = new ArrayList<>(); // Store results in class field
-            List<Long> executionTimes = new ArrayList<>();
-
-            // Run each algorithm
-            for (PathfindingAlgorithm algorithm : algorithms) {
-                long startTime = System.nanoTime();
-                PathResult result = algorithm.findPath(graph, start, end);
-                long endTime = System.nanoTime();
-                results.add(result);
-                executionTimes.add(endTime - startTime);
-            }
+            cancelSearches();
+            Main.algorithmNames = algorithmNames;
+            results = new ArrayList<>(Collections.nCopies(algorithms.size(), null));
+            executionTimes = new ArrayList<>(Collections.nCopies(algorithms.size(), 0L));
 
             if (visualizationPanel != null) {
                 mainFrame.remove(visualizationPanel);
             }
-            visualizationPanel = GraphVisualizer.createVisualization(
-                graph, results, algorithmNames, start, end, executionTimes
-            );
-            
-            updateInfoPanel(algorithmNames, executionTimes); // Add this line
-                
+            GraphVisualizer.GraphPanel livePanel =
+                GraphVisualizer.createLiveVisualization(graph, algorithmNames, start, end);
+            visualizationPanel = livePanel;
             mainFrame.add(visualizationPanel, BorderLayout.CENTER);
             mainFrame.pack();
+
+            // Searches run off the EDT, so the window stays responsive and
+            // shows each one's progress as it goes
+            JLabel[] labels = (JLabel[]) infoPanel.getClientProperty("resultLabels");
+            for (int i = 0; i < algorithms.size(); i++) {
+                labels[i].setText(String.format("<html><b>%s:</b> Running...</html>", algorithmNames.get(i)));
+                SolveWorker worker = new SolveWorker(graph, algorithms.get(i), start, end, i, livePanel,
+                                                     w -> searchFinished(w, livePanel, cancelButton));
+                runningWorkers.add(worker);
+            }
+            cancelButton.setEnabled(true);
+            for (SolveWorker worker : new ArrayList<>(runningWorkers)) {
+                worker.execute();
+            }
+        });
+
+        cancelButton.addActionListener(e -> {
+            cancelSearches();
+            cancelButton.setEnabled(false);
         });
 
         mainFrame.pack();
@@ -135,6 +158,46 @@ public class Main {
         mainFrame.setVisible(true);
     }
     
+    // Called on the EDT as each search ends
+    private static void searchFinished(SolveWorker worker, GraphVisualizer.GraphPanel panel,
+                                       JButton cancelButton) {
+        if (!runningWorkers.remove(worker)) {
+            return; // cancelled: its label already says so
+        }
+        JLabel[] labels = (JLabel[]) infoPanel.getClientProperty("resultLabels");
+        int i = worker.getIndex();
+        String name = algorithmNames.get(i);
+        try {
+            PathResult result = worker.get();
+            results.set(i, result);
+            executionTimes.set(i, worker.getNanos());
+            panel.showResult(i, result, worker.getNanos());
+            labels[i].setText(String.format("<html><b>%s:</b> %s<br/>Real Time: %.2f ms<br/>Simulated Time: %.2f</html>",
+                name, getAlgorithmDescription(name), worker.getNanos() / 1_000_000.0, result.getSimulatedTime()));
+        } catch (InterruptedException | ExecutionException ex) {
+            labels[i].setText(String.format("<html><b>%s:</b> Failed: %s</html>", name,
+                ex instanceof ExecutionException ? ex.getCause() : ex));
+        }
+        if (runningWorkers.isEmpty()) {
+            cancelButton.setEnabled(false);
+            if (!results.contains(null)) {
+                updateInfoPanel(algorithmNames, executionTimes);
+            }
+        }
+    }
+
+    // Cancelled workers leave the list straight away, so searchFinished
+    // ignores them even if a new search has started by the time they end
+    private static void cancelSearches() {
+        JLabel[] labels = (JLabel[]) infoPanel.getClientProperty("resultLabels");
+        for (SolveWorker worker : runningWorkers) {
+            worker.cancel(true);
+            labels[worker.getIndex()].setText(String.format("<html><b>%s:</b> Cancelled</html>",
+                algorithmNames.get(worker.getIndex())));
+        }
+        runningWorkers.clear();
+    }
+
     private static JPanel createInfoPanel() {
         infoPanel = new JPanel(); // Store reference to info panel
         infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
@@ -5,4 +5,10 @@ public class ManhattanHeuristic implements Heuristic {
         // Simplify heuristic by removing height difference
         return Math.abs(from.getRow() - to.getRow()) + Math.abs(from.getCol() - to.getCol());
     }
-}
\ No newline at end of file
+
+    @Override
+    public double estimate(GridGraph graph, int from, int to) {
+        int cols = graph.getCols();
+        return Math.abs(from / cols - to / cols) + Math.abs(from % cols - to % cols);
+    }
+}
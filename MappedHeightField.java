@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Heights read straight out of a memory-mapped HeightMapFile; nothing is
+// copied onto the heap. A single mapping can't exceed 2 GB, so the file is
+// mapped as consecutive 1 GB segments. The header and both element sizes
+// divide 1 GB, so no height straddles two segments.
+//
+// Safe for concurrent readers: reads use absolute positions only.
+public class MappedHeightField implements HeightField {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final int rows;
+    private final int cols;
+    private final HeightMapFile.DataType type;
+    private final double scale;
+    private final long seed;
+    private final MappedByteBuffer[] segments;
+
+    MappedHeightField(FileChannel channel, int rows, int cols, HeightMapFile.DataType type, double scale, long seed)
+            throws IOException {
+        this.rows = rows;
+        this.cols = cols;
+        this.type = type;
+        this.scale = scale;
+        this.seed = seed;
+        long length = HeightMapFile.HEADER_BYTES + (long) rows * cols * type.bytes;
+        this.segments = new MappedByteBuffer[(int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            long size = Math.min(SEGMENT_MASK + 1, length - start);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    @Override
+    public int getRows() { return rows; }
+
+    @Override
+    public int getCols() { return cols; }
+
+    public HeightMapFile.DataType getDataType() { return type; }
+    public double getScale() { return scale; }
+    public long getSeed() { return seed; }
+
+    @Override
+    public double getHeight(int row, int col) {
+        return height((long) row * cols + col);
+    }
+
+    @Override
+    public double getHeight(int index) {
+        return height(index);
+    }
+
+    private double height(long index) {
+        long offset = HeightMapFile.HEADER_BYTES + index * type.bytes;
+        MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        int position = (int) (offset & SEGMENT_MASK);
+        if (type == HeightMapFile.DataType.FLOAT16) {
+            return HeightMapFile.fromHalf(segment.getShort(position));
+        }
+        return segment.getFloat(position);
+    }
+}
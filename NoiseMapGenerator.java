@@ -1,4 +1,5 @@
 import java.util.Random;
+import java.util.stream.IntStream;
 
 public class NoiseMapGenerator {
     public static double[][] generateHeightMap(int rows, int cols, double scale) {
@@ -99,4 +100,135 @@ public class NoiseMapGenerator {
         double randomValue = (rand.nextDouble() - 0.5) * roughness; // Adjusted randomness
         grid[y][x] = avg + randomValue;
     }
+
+    // Diamond-Square for very large maps. Same algorithm, different layout:
+    //  - each point's random offset is a hash of (seed, row, col) instead of the
+    //    next draw from a shared Random, so every pass runs its rows in parallel
+    //    and a seed gives the same map on any number of threads (not the same
+    //    map as generateHeightMap, though)
+    //  - floats, and only the even points (the coarse levels) get a grid of
+    //    their own, (size/2 + 1)^2; the finest level, 3/4 of all points, is
+    //    written straight into the rows x cols output
+    //  - each level only computes the points the output depends on
+    // Heights are normalized to [0, maxHeight].
+    public static FloatHeightField generateHeightField(int rows, int cols, double scale, long seed, double maxHeight) {
+        int size = 2;
+        while (size < rows || size < cols) {
+            size *= 2;
+        }
+        int n = size / 2; // fine point (2i, 2j) is coarse point (i, j)
+        int stride = n + 1;
+        float[] coarse = new float[stride * stride];
+        coarse[0] = (float) hash01(seed, 0, 0);
+        coarse[n] = (float) hash01(seed, 0, size);
+        coarse[n * stride] = (float) hash01(seed, size, 0);
+        coarse[n * stride + n] = (float) hash01(seed, size, size);
+
+        // Highest coarse row/col each coarse level must produce. The finest pass
+        // reads coarse points up to (rows/2 + 1); a level's square step reads its
+        // own diamond points one step further out, and those read the level above
+        // one step further still.
+        int levels = Integer.numberOfTrailingZeros(n);
+        int[] rowLimit = new int[levels + 1];
+        int[] colLimit = new int[levels + 1];
+        rowLimit[0] = Math.min(n, rows / 2 + 1);
+        colLimit[0] = Math.min(n, cols / 2 + 1);
+        for (int level = 1; level <= levels; level++) {
+            int step = 1 << (level - 1);
+            rowLimit[level] = Math.min(n, rowLimit[level - 1] + 2 * step);
+            colLimit[level] = Math.min(n, colLimit[level - 1] + 2 * step);
+        }
+
+        for (int level = levels - 1; level >= 0; level--) {
+            int half = 1 << level;
+            double roughness = scale * 2 * half / n; // scale at the top level, halved per level
+            int diamondRows = Math.min(n, rowLimit[level] + half);
+            int diamondCols = Math.min(n, colLimit[level] + half);
+            IntStream.rangeClosed(0, diamondRows / half).parallel().filter(i -> i % 2 == 1).forEach(i -> {
+                int y = i * half;
+                for (int x = half; x <= diamondCols; x += 2 * half) {
+                    double avg = (coarse[(y - half) * stride + x - half] + coarse[(y - half) * stride + x + half]
+                                  + coarse[(y + half) * stride + x - half] + coarse[(y + half) * stride + x + half]) / 4.0;
+                    coarse[y * stride + x] = (float) (avg + (hash01(seed, 2 * y, 2 * x) - 0.5) * roughness);
+                }
+            });
+            int squareRows = rowLimit[level];
+            int squareCols = colLimit[level];
+            IntStream.rangeClosed(0, squareRows / half).parallel().forEach(i -> {
+                int y = i * half;
+                for (int x = (i % 2 == 0) ? half : 0; x <= squareCols; x += 2 * half) {
+                    double sum = 0;
+                    int count = 0;
+                    if (y >= half) { sum += coarse[(y - half) * stride + x]; count++; }
+                    if (y + half <= n) { sum += coarse[(y + half) * stride + x]; count++; }
+                    if (x >= half) { sum += coarse[y * stride + x - half]; count++; }
+                    if (x + half <= n) { sum += coarse[y * stride + x + half]; count++; }
+                    coarse[y * stride + x] = (float) (sum / count + (hash01(seed, 2 * y, 2 * x) - 0.5) * roughness);
+                }
+            });
+        }
+
+        // Finest level straight into the output: even points and diamonds first,
+        // then the squares, which read both
+        float[] out = new float[rows * cols];
+        double roughness = scale / n;
+        int fineSize = size;
+        IntStream.range(0, rows).parallel().forEach(y -> {
+            for (int x = y % 2; x < cols; x += 2) {
+                out[y * cols + x] = y % 2 == 0
+                    ? coarse[(y / 2) * stride + x / 2]
+                    : (float) fineDiamond(coarse, stride, seed, roughness, y, x);
+            }
+        });
+        IntStream.range(0, rows).parallel().forEach(y -> {
+            for (int x = 1 - y % 2; x < cols; x += 2) {
+                double sum = 0;
+                int count = 0;
+                if (y >= 1) { sum += out[(y - 1) * cols + x]; count++; }
+                if (x >= 1) { sum += out[y * cols + x - 1]; count++; }
+                if (y + 1 <= fineSize) {
+                    sum += y + 1 < rows ? out[(y + 1) * cols + x] : fineValue(coarse, stride, seed, roughness, y + 1, x);
+                    count++;
+                }
+                if (x + 1 <= fineSize) {
+                    sum += x + 1 < cols ? out[y * cols + x + 1] : fineValue(coarse, stride, seed, roughness, y, x + 1);
+                    count++;
+                }
+                out[y * cols + x] = (float) (sum / count + (hash01(seed, y, x) - 0.5) * roughness);
+            }
+        });
+
+        // Normalize to [0, maxHeight]
+        double min = IntStream.range(0, out.length).parallel().mapToDouble(i -> out[i]).min().orElse(0);
+        double max = IntStream.range(0, out.length).parallel().mapToDouble(i -> out[i]).max().orElse(0);
+        double factor = max > min ? maxHeight / (max - min) : 0;
+        IntStream.range(0, rows).parallel().forEach(y -> {
+            for (int i = y * cols; i < (y + 1) * cols; i++) {
+                out[i] = (float) ((out[i] - min) * factor);
+            }
+        });
+        return new FloatHeightField(rows, cols, out);
+    }
+
+    // Finest-level value of an even point or a diamond point outside the output
+    private static double fineValue(float[] coarse, int stride, long seed, double roughness, int y, int x) {
+        return y % 2 == 0
+            ? coarse[(y / 2) * stride + x / 2]
+            : fineDiamond(coarse, stride, seed, roughness, y, x);
+    }
+
+    private static double fineDiamond(float[] coarse, int stride, long seed, double roughness, int y, int x) {
+        int top = (y / 2) * stride + x / 2; // coarse point up and to the left
+        double avg = (coarse[top] + coarse[top + 1] + coarse[top + stride] + coarse[top + stride + 1]) / 4.0;
+        return avg + (hash01(seed, y, x) - 0.5) * roughness;
+    }
+
+    // Uniform in [0, 1), fixed per (seed, row, col): SplitMix64's mixing function
+    private static double hash01(long seed, int y, int x) {
+        long z = seed + 0x9E3779B97F4A7C15L * ((((long) y) << 32) ^ x);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
 }
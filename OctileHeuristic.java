@@ -0,0 +1,27 @@
+// Unit-step distance for 8-connected grids, the counterpart of
+// ManhattanHeuristic: one per straight step, sqrt(2) per diagonal, so the
+// estimate is exact on a flat grid where every move costs its length. On a
+// 16-connected grid knight moves are shorter than the octile distance, so
+// there it falls back to straight-line distance to stay admissible
+// (estimate(Node, Node) has no graph to ask and assumes 8-connectivity).
+public class OctileHeuristic implements Heuristic {
+    @Override
+    public double estimate(Node from, Node to) {
+        return octile(Math.abs(from.getRow() - to.getRow()), Math.abs(from.getCol() - to.getCol()));
+    }
+
+    @Override
+    public double estimate(GridGraph graph, int from, int to) {
+        int cols = graph.getCols();
+        int dr = Math.abs(from / cols - to / cols);
+        int dc = Math.abs(from % cols - to % cols);
+        if (graph.getConnectivity() == GridGraph.Connectivity.SIXTEEN) {
+            return Math.sqrt((double) dr * dr + (double) dc * dc);
+        }
+        return octile(dr, dc);
+    }
+
+    private static double octile(int dr, int dc) {
+        return CostModelHeuristic.distance(CostModelHeuristic.Metric.OCTILE, dr, dc);
+    }
+}
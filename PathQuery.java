@@ -0,0 +1,12 @@
+public class PathQuery {
+    private final Node start;
+    private final Node end;
+
+    public PathQuery(Node start, Node end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public Node getStart() { return start; }
+    public Node getEnd() { return end; }
+}
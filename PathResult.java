@@ -1,27 +1,164 @@
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
+// A found path and its cost. The grid searches store the path packed as
+// cell ids (4 bytes per step) and getPath() is a read-only view that builds
+// each Node when it's read; with the FLAT_* layouts that Node reflects the
+// cell's height at the time of reading. Results built from a List<Node>
+// keep that list as it is.
 public class PathResult {
     private final List<Node> path;
+    private final GridGraph graph; // with cells: the graph they index
+    private final int[] cells;     // null unless packed
     private final double simulatedTime;
+    private final SearchStats stats;
 
     public PathResult(List<Node> path, double simulatedTime) {
+        this(path, simulatedTime, 0);
+    }
+
+    public PathResult(List<Node> path, double simulatedTime, int expandedNodes) {
+        this(path, simulatedTime, expandedNodes == 0 ? SearchStats.EMPTY
+             : new SearchStats(expandedNodes, 0, 0, 0, 0, 0, 0, 0, 0));
+    }
+
+    public PathResult(List<Node> path, double simulatedTime, SearchStats stats) {
         this.path = path;
+        this.graph = null;
+        this.cells = null;
+        this.simulatedTime = simulatedTime;
+        this.stats = stats;
+    }
+
+    // Takes ownership of cells (start first); an empty array means no path
+    public PathResult(GridGraph graph, int[] cells, double simulatedTime, SearchStats stats) {
+        this.path = new CellPath(graph, cells);
+        this.graph = graph;
+        this.cells = cells;
         this.simulatedTime = simulatedTime;
+        this.stats = stats;
     }
 
     public List<Node> getPath() {
         return path;
     }
 
+    public int getPathLength() {
+        return cells != null ? cells.length : path.size();
+    }
+
+    // The path as cell ids of the given graph. Packed results return their
+    // own array (don't modify it); others are converted.
+    public int[] getCells(GridGraph graph) {
+        if (cells != null && graph == this.graph) {
+            return cells;
+        }
+        int[] converted = new int[path.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = graph.getCellIndex(path.get(i));
+        }
+        return converted;
+    }
+
+    // The path as direction runs: [start cell, (dir << 24 | steps)...], one
+    // entry per straight stretch. Much shorter than the cells on open
+    // terrain; see decodeDirectionRuns.
+    public int[] getDirectionRuns(GridGraph graph) {
+        int[] ids = getCells(graph);
+        if (ids.length == 0) {
+            return ids;
+        }
+        int[] runs = new int[ids.length];
+        int length = 0;
+        runs[length++] = ids[0];
+        for (int i = 1; i < ids.length; i++) {
+            int dir = directionOf(graph, ids[i - 1], ids[i]);
+            if (length > 1 && runs[length - 1] >>> 24 == dir && (runs[length - 1] & 0xFFFFFF) < 0xFFFFFF) {
+                runs[length - 1]++;
+            } else {
+                runs[length++] = dir << 24 | 1;
+            }
+        }
+        return Arrays.copyOf(runs, length);
+    }
+
+    public static int[] decodeDirectionRuns(GridGraph graph, int[] runs) {
+        if (runs.length == 0) {
+            return runs;
+        }
+        int length = 1;
+        for (int i = 1; i < runs.length; i++) {
+            length += runs[i] & 0xFFFFFF;
+        }
+        int[] ids = new int[length];
+        int cell = runs[0];
+        ids[0] = cell;
+        int k = 1;
+        for (int i = 1; i < runs.length; i++) {
+            int dir = runs[i] >>> 24;
+            for (int step = runs[i] & 0xFFFFFF; step > 0; step--) {
+                cell = graph.getNeighborIndex(cell, dir);
+                ids[k++] = cell;
+            }
+        }
+        return ids;
+    }
+
+    private static int directionOf(GridGraph graph, int from, int to) {
+        for (int dir = 0; dir < graph.getDirectionCount(); dir++) {
+            if (graph.getNeighborIndex(from, dir) == to) {
+                return dir;
+            }
+        }
+        throw new IllegalArgumentException("Cells " + from + " and " + to + " are not neighbours");
+    }
+
     public double getSimulatedTime() {
         return simulatedTime;
     }
 
+    // Nodes the search expanded to produce this result (0 if not tracked)
+    public int getExpandedNodes() {
+        return stats.getExpanded();
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
     public double calculateSimulatedTime(GridGraph graph) {
         double totalTime = 0;
+        if (cells != null && graph == this.graph) {
+            for (int i = 0; i < cells.length - 1; i++) {
+                totalTime += graph.getCost(cells[i], cells[i + 1]);
+            }
+            return totalTime;
+        }
         for (int i = 0; i < path.size() - 1; i++) {
             totalTime += graph.getCost(path.get(i), path.get(i + 1));
         }
         return totalTime;
     }
+
+    private static final class CellPath extends AbstractList<Node> implements RandomAccess {
+        private final GridGraph graph;
+        private final int[] cells;
+
+        CellPath(GridGraph graph, int[] cells) {
+            this.graph = graph;
+            this.cells = cells;
+        }
+
+        @Override
+        public Node get(int index) {
+            return graph.getNode(cells[index]);
+        }
+
+        @Override
+        public int size() {
+            return cells.length;
+        }
+    }
 }
@@ -0,0 +1,364 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Benchmark suite for the pathfinders, GridGraph construction and noise
+// generation, modelled on JMH's average-time mode: warmup iterations,
+// then timed iterations that each repeat the operation for a fixed time.
+// Results are written to the console and, with -o, as JSON in JMH's result
+// layout so existing JMH tooling can compare runs.
+//
+// Each benchmark runs in a fresh JVM by default (-f 0 runs in-process), so
+// JIT profiles from one algorithm don't leak into the next. Allocation is
+// reported per operation from the thread allocation counter (JMH's
+// gc.alloc.rate.norm), GC counts and times from the collector MXBeans.
+//
+// Usage: java -Xmx3g PathfindingBenchmark [options]
+//   -sizes 100,300,1000   grid sizes (square)
+//   -seeds 42             terrain seeds
+//   -dist 0.1,0.5,1.0     query span as a fraction of the grid diagonal
+//   -wi 3 -i 5 -t 1000    warmup iterations, measured iterations, ms per iteration
+//   -f 1                  forks per benchmark (0 = in this JVM)
+//   -b regex              only benchmarks whose name matches
+//   -o results.json       write JSON results
+public class PathfindingBenchmark {
+    private static final double NOISE_SCALE = 4.25;
+    private static final String RESULT_PREFIX = "#result";
+
+    private static volatile Object sink; // keeps results alive so the JIT can't drop the work
+
+    // One measurable operation; setup runs before timing starts
+    private static class Case {
+        final String name;
+        final Map<String, String> params;
+        final Supplier<Supplier<Object>> setup;
+
+        Case(String name, Map<String, String> params, Supplier<Supplier<Object>> setup) {
+            this.name = name;
+            this.params = params;
+            this.setup = setup;
+        }
+    }
+
+    private static class Result {
+        final double[] iterationMsPerOp;
+        final double bytesPerOp;
+        final double allocMbPerSec;
+        final long gcCount;
+        final long gcMillis;
+
+        Result(double[] iterationMsPerOp, double bytesPerOp, double allocMbPerSec, long gcCount, long gcMillis) {
+            this.iterationMsPerOp = iterationMsPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.allocMbPerSec = allocMbPerSec;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        double score() {
+            return Arrays.stream(iterationMsPerOp).average().orElse(Double.NaN);
+        }
+
+        // Half-width of a 99.9% confidence interval (normal approximation)
+        double error() {
+            int n = iterationMsPerOp.length;
+            if (n < 2) {
+                return Double.NaN;
+            }
+            double mean = score();
+            double variance = Arrays.stream(iterationMsPerOp).map(x -> (x - mean) * (x - mean)).sum() / (n - 1);
+            return 3.29 * Math.sqrt(variance / n);
+        }
+
+        String toLine() {
+            StringBuilder line = new StringBuilder(RESULT_PREFIX);
+            line.append('\t').append(bytesPerOp).append('\t').append(allocMbPerSec)
+                .append('\t').append(gcCount).append('\t').append(gcMillis);
+            for (double value : iterationMsPerOp) {
+                line.append('\t').append(value);
+            }
+            return line.toString();
+        }
+
+        static Result fromLine(String line) {
+            String[] parts = line.split("\t");
+            double[] iterations = new double[parts.length - 5];
+            for (int i = 0; i < iterations.length; i++) {
+                iterations[i] = Double.parseDouble(parts[5 + i]);
+            }
+            return new Result(iterations, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                              Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+        }
+    }
+
+    private static class Options {
+        int[] sizes = {100, 300, 1000};
+        long[] seeds = {42L};
+        double[] distances = {0.1, 0.5, 1.0};
+        int warmupIterations = 3;
+        int iterations = 5;
+        int iterationMillis = 1000;
+        int forks = 1;
+        Pattern filter = Pattern.compile(".*");
+        String output;
+        int runOnly = -1; // set in forked children
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-sizes": options.sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray(); break;
+                    case "-seeds": options.seeds = Arrays.stream(value.split(",")).mapToLong(Long::parseLong).toArray(); break;
+                    case "-dist": options.distances = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray(); break;
+                    case "-wi": options.warmupIterations = Integer.parseInt(value); break;
+                    case "-i": options.iterations = Integer.parseInt(value); break;
+                    case "-t": options.iterationMillis = Integer.parseInt(value); break;
+                    case "-f": options.forks = Integer.parseInt(value); break;
+                    case "-b": options.filter = Pattern.compile(value); break;
+                    case "-o": options.output = value; break;
+                    case "-run": options.runOnly = Integer.parseInt(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            return options;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<Case> cases = cases(options);
+
+        if (options.runOnly >= 0) {
+            // Forked child: run one case and hand the numbers back on stdout
+            System.out.println(measure(cases.get(options.runOnly), options).toLine());
+            return;
+        }
+
+        System.out.printf("%-18s %-56s %12s %10s %14s %6s%n", "benchmark", "params", "ms/op", "error", "bytes/op", "gcs");
+        List<String> json = new ArrayList<>();
+        for (int index = 0; index < cases.size(); index++) {
+            Case benchmark = cases.get(index);
+            if (!options.filter.matcher(benchmark.name).find()) {
+                continue;
+            }
+            List<Result> runs = new ArrayList<>();
+            if (options.forks == 0) {
+                runs.add(measure(benchmark, options));
+            }
+            for (int fork = 0; fork < options.forks; fork++) {
+                runs.add(fork(index, args));
+            }
+            Result result = merge(runs);
+            System.out.printf("%-18s %-56s %12.3f %10.3f %14.0f %6d%n", benchmark.name, benchmark.params,
+                              result.score(), result.error(), result.bytesPerOp, result.gcCount);
+            json.add(toJson(benchmark, result, options));
+        }
+
+        if (options.output != null) {
+            Files.write(Paths.get(options.output), ("[\n" + String.join(",\n", json) + "\n]\n").getBytes());
+            System.out.println("Wrote " + options.output);
+        }
+    }
+
+    // Same argument list in the same order in every JVM, so an index identifies a case
+    private static List<Case> cases(Options options) {
+        List<Case> cases = new ArrayList<>();
+        String[] algorithms = {"Dijkstra", "AStar", "BestFirst", "BFS"};
+        for (String algorithm : algorithms) {
+            for (int size : options.sizes) {
+                for (long seed : options.seeds) {
+                    for (double distance : options.distances) {
+                        cases.add(new Case("findPath", params("algorithm", algorithm, "size", size, "seed", seed,
+                                                              "distance", distance), () -> {
+                            GridGraph graph = ComparisonRunner.terrain(size, size, seed);
+                            PathfindingAlgorithm pathfinder = algorithm(algorithm);
+                            // Centred diagonal query spanning the given fraction of the grid
+                            int span = (int) Math.round(distance * (size - 1));
+                            int from = (size - 1 - span) / 2;
+                            Node start = graph.getNode(from, from);
+                            Node end = graph.getNode(from + span, from + span);
+                            return () -> pathfinder.findPath(graph, start, end);
+                        }));
+                    }
+                }
+            }
+        }
+        for (GridGraph.StorageMode mode : GridGraph.StorageMode.values()) {
+            for (int size : options.sizes) {
+                cases.add(new Case("graphConstruction", params("mode", mode, "size", size), () -> {
+                    double[][] heightMap = NoiseMapGenerator.generateHeightMap(size, size, NOISE_SCALE, 42L);
+                    return () -> new GridGraph(heightMap, mode);
+                }));
+            }
+        }
+        for (int size : options.sizes) {
+            for (long seed : options.seeds) {
+                cases.add(new Case("noiseGeneration", params("size", size, "seed", seed),
+                                   () -> () -> NoiseMapGenerator.generateHeightMap(size, size, NOISE_SCALE, seed)));
+            }
+        }
+        return cases;
+    }
+
+    private static PathfindingAlgorithm algorithm(String name) {
+        switch (name) {
+            case "Dijkstra": return new DijkstraPathfinder();
+            case "AStar": return new AStarPathfinder(new ManhattanHeuristic());
+            case "BestFirst": return new BestFirstPathfinder(new ManhattanHeuristic());
+            default: return new BFSPathfinder();
+        }
+    }
+
+    private static Map<String, String> params(Object... keyValues) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            params.put(String.valueOf(keyValues[i]), String.valueOf(keyValues[i + 1]));
+        }
+        return params;
+    }
+
+    private static Result measure(Case benchmark, Options options) {
+        Supplier<Object> operation = benchmark.setup.get();
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(operation, options.iterationMillis);
+        }
+
+        System.gc(); // don't bill setup garbage to the measurement
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long allocated = AllocationMeter.threadAllocatedBytes();
+        long operations = 0;
+        long nanos = 0;
+        double[] msPerOp = new double[options.iterations];
+        for (int i = 0; i < options.iterations; i++) {
+            long[] opsAndNanos = iteration(operation, options.iterationMillis);
+            operations += opsAndNanos[0];
+            nanos += opsAndNanos[1];
+            msPerOp[i] = opsAndNanos[1] / 1e6 / opsAndNanos[0];
+        }
+        double bytes = AllocationMeter.threadAllocatedBytes() - allocated;
+        return new Result(msPerOp, allocated < 0 ? Double.NaN : bytes / operations,
+                          allocated < 0 ? Double.NaN : bytes / (1024 * 1024) / (nanos / 1e9),
+                          gcCount() - gcCount, gcMillis() - gcMillis);
+    }
+
+    // Repeats the operation until the time is up (at least once)
+    private static long[] iteration(Supplier<Object> operation, int millis) {
+        long deadline = millis * 1_000_000L;
+        long start = System.nanoTime();
+        long operations = 0;
+        long elapsed;
+        do {
+            sink = operation.get();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        return new long[] {operations, elapsed};
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(n -> n > 0).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(n -> n > 0).sum();
+    }
+
+    // Runs one case in a new JVM with this JVM's class path and heap settings
+    private static Result fork(int index, String[] args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PathfindingBenchmark.class.getName());
+        command.addAll(Arrays.asList(args));
+        command.add("-run");
+        command.add(String.valueOf(index));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Result result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = Result.fromLine(line);
+                } else {
+                    System.out.println(line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("Forked benchmark " + index + " failed");
+        }
+        return result;
+    }
+
+    private static Result merge(List<Result> runs) {
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        double[] iterations = runs.stream().flatMapToDouble(r -> Arrays.stream(r.iterationMsPerOp)).toArray();
+        return new Result(iterations,
+                          runs.stream().mapToDouble(r -> r.bytesPerOp).average().orElse(Double.NaN),
+                          runs.stream().mapToDouble(r -> r.allocMbPerSec).average().orElse(Double.NaN),
+                          runs.stream().mapToLong(r -> r.gcCount).sum(),
+                          runs.stream().mapToLong(r -> r.gcMillis).sum());
+    }
+
+    private static String toJson(Case benchmark, Result result, Options options) {
+        StringBuilder params = new StringBuilder();
+        for (Map.Entry<String, String> param : benchmark.params.entrySet()) {
+            if (params.length() > 0) {
+                params.append(", ");
+            }
+            params.append(quote(param.getKey())).append(": ").append(quote(param.getValue()));
+        }
+        StringBuilder raw = new StringBuilder();
+        for (double value : result.iterationMsPerOp) {
+            if (raw.length() > 0) {
+                raw.append(", ");
+            }
+            raw.append(number(value));
+        }
+        return "  {\n"
+            + "    \"benchmark\": " + quote(PathfindingBenchmark.class.getName() + "." + benchmark.name) + ",\n"
+            + "    \"mode\": \"avgt\",\n"
+            + "    \"threads\": 1,\n"
+            + "    \"forks\": " + options.forks + ",\n"
+            + "    \"warmupIterations\": " + options.warmupIterations + ",\n"
+            + "    \"measurementIterations\": " + options.iterations + ",\n"
+            + "    \"params\": {" + params + "},\n"
+            + "    \"primaryMetric\": {\"score\": " + number(result.score()) + ", \"scoreError\": " + number(result.error())
+            + ", \"scoreUnit\": \"ms/op\", \"rawData\": [[" + raw + "]]},\n"
+            + "    \"secondaryMetrics\": {\n"
+            + "      \"gc.alloc.rate.norm\": {\"score\": " + number(result.bytesPerOp) + ", \"scoreUnit\": \"B/op\"},\n"
+            + "      \"gc.alloc.rate\": {\"score\": " + number(result.allocMbPerSec) + ", \"scoreUnit\": \"MB/sec\"},\n"
+            + "      \"gc.count\": {\"score\": " + result.gcCount + ", \"scoreUnit\": \"counts\"},\n"
+            + "      \"gc.time\": {\"score\": " + result.gcMillis + ", \"scoreUnit\": \"ms\"}\n"
+            + "    }\n"
+            + "  }";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    // JSON has no NaN or infinity
+    private static String number(double value) {
+        return Double.isFinite(value) ? String.valueOf(value) : "null";
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Per-query scratch storage for the grid searches: cost, parent, open and
+// closed state for every cell of a rows x cols graph. Entries are only valid
+// when stamped with the current generation, so begin() is O(1) instead of
+// clearing every array. Borrow instances from SearchContextPool; a context
+// must only be used by one thread at a time.
+public class SearchContext {
+    private final int rows;
+    private final int cols;
+    private final double[] cost;
+    private final int[] parent;
+    private final int[] seen;   // seen[id] == generation: cost/parent are valid
+    private final int[] closed; // closed[id] == generation: already expanded
+    private final IndexedMinHeap openSet;
+    private int[] queue;        // FIFO for BFS, allocated on first use
+    private BucketQueue buckets; // for BucketDijkstraPathfinder, allocated on first use
+    private int generation;
+    private int expanded;
+    private int generated;
+    // Only measured while timing is on; see SearchStats
+    private boolean timing;
+    private long startNanos;
+    private long heuristicNanos;
+    private long costNanos;
+    // Expanded cells not yet passed to the progress listener
+    private SearchListener progress;
+    private int[] progressCells;
+    private int progressCount;
+
+    static final int PROGRESS_INTERVAL = 4096;
+
+    public SearchContext(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int cells = rows * cols;
+        this.cost = new double[cells];
+        this.parent = new int[cells];
+        this.seen = new int[cells];
+        this.closed = new int[cells];
+        this.openSet = new IndexedMinHeap(cells);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    // Starts a new query: forgets everything recorded by the previous one
+    public void begin() {
+        openSet.clear();
+        if (buckets != null) {
+            buckets.clear();
+        }
+        expanded = 0;
+        generated = 0;
+        heuristicNanos = 0;
+        costNanos = 0;
+        if (timing) {
+            startNanos = System.nanoTime();
+        }
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    public IndexedMinHeap getOpenSet() { return openSet; }
+
+    public int[] getQueue() {
+        if (queue == null) {
+            queue = new int[cost.length];
+        }
+        return queue;
+    }
+
+    public BucketQueue getBucketQueue() {
+        if (buckets == null) {
+            buckets = new BucketQueue(cost.length);
+        }
+        return buckets;
+    }
+
+    public boolean isSeen(int id) { return seen[id] == generation; }
+
+    // +infinity for cells not reached in this query
+    public double getCost(int id) {
+        return seen[id] == generation ? cost[id] : Double.POSITIVE_INFINITY;
+    }
+
+    public int getParent(int id) {
+        return seen[id] == generation ? parent[id] : -1;
+    }
+
+    public void setCost(int id, double value, int parentId) {
+        if (seen[id] != generation) {
+            seen[id] = generation;
+            generated++;
+        }
+        cost[id] = value;
+        parent[id] = parentId;
+    }
+
+    public boolean isClosed(int id) { return closed[id] == generation; }
+    public void close(int id) {
+        closed[id] = generation;
+        expanded++;
+        if (progress != null) {
+            progressCells[progressCount++] = id;
+            if (progressCount == PROGRESS_INTERVAL) {
+                flushProgress();
+            }
+        }
+    }
+
+    // null turns progress reporting off
+    void setProgress(SearchListener listener) {
+        progress = listener;
+        progressCount = 0;
+        if (listener != null && progressCells == null) {
+            progressCells = new int[PROGRESS_INTERVAL];
+        }
+    }
+
+    void flushProgress() {
+        if (progressCount > 0) {
+            int count = progressCount;
+            progressCount = 0;
+            progress.searchProgress(progressCells, count);
+        }
+    }
+
+    // Cells closed since begin(), i.e. expanded by the current query
+    public int getExpandedCount() { return expanded; }
+
+    public void setTiming(boolean timing) { this.timing = timing; }
+    public boolean isTiming() { return timing; }
+
+    // Heuristic and edge cost lookups go through these so they can be timed;
+    // with timing off they cost one predictable branch
+    public double estimate(Heuristic heuristic, GridGraph graph, int from, int to) {
+        if (!timing) {
+            return heuristic.estimate(graph, from, to);
+        }
+        long start = System.nanoTime();
+        double h = heuristic.estimate(graph, from, to);
+        heuristicNanos += System.nanoTime() - start;
+        return h;
+    }
+
+    public double edgeCost(GridGraph graph, int cell, int dir) {
+        if (!timing) {
+            return graph.getEdgeCost(cell, dir);
+        }
+        long start = System.nanoTime();
+        double cost = graph.getEdgeCost(cell, dir);
+        costNanos += System.nanoTime() - start;
+        return cost;
+    }
+
+    public double incomingEdgeCost(GridGraph graph, int cell, int dir) {
+        if (!timing) {
+            return graph.getIncomingEdgeCost(cell, dir);
+        }
+        long start = System.nanoTime();
+        double cost = graph.getIncomingEdgeCost(cell, dir);
+        costNanos += System.nanoTime() - start;
+        return cost;
+    }
+
+    // Snapshot of the work done since begin(). A query uses either the open
+    // set or the bucket queue, so their counters simply add up.
+    public SearchStats getStats() {
+        int pushes = openSet.getPushCount();
+        int decreases = openSet.getDecreaseCount();
+        int pops = openSet.getPollCount();
+        int peak = openSet.getPeakSize();
+        if (buckets != null) {
+            pushes += buckets.getPushCount();
+            decreases += buckets.getDecreaseCount();
+            pops += buckets.getPollCount();
+            peak = Math.max(peak, buckets.getPeakSize());
+        }
+        return new SearchStats(expanded, generated, pushes, decreases, pops, peak, heuristicNanos, costNanos,
+                               timing ? System.nanoTime() - startNanos : 0);
+    }
+
+    // Cells from start to end following parent links, or an empty array if end wasn't reached
+    public int[] pathCells(int start, int end) {
+        if (!isSeen(end)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int cur = end; cur != start; cur = parent[cur]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        int cur = end;
+        for (int i = length - 1; i >= 0; i--) {
+            cells[i] = cur;
+            cur = parent[cur];
+        }
+        return cells;
+    }
+
+    public List<Node> buildPath(GridGraph graph, int start, int end) {
+        int[] cells = pathCells(start, end);
+        List<Node> path = new ArrayList<>(cells.length);
+        for (int cell : cells) {
+            path.add(graph.getNode(cell));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hands out SearchContexts sized for a graph's dimensions. Each thread keeps
+// its own free list per (rows, cols), so borrowing never contends and a
+// context is never visible to two threads at once.
+//
+// A full-grid context takes about 28 bytes per cell, so what a thread keeps
+// is bounded: MAX_IDLE_PER_SIZE contexts for each of the MAX_IDLE_SIZES
+// sizes it used last (HPA* alternates between two). Idle contexts still live
+// as long as their thread; pool threads that search only now and then, such
+// as the parallel preprocessing and BatchPathfinder's workers, call
+// clearThread() when their work is done.
+public class SearchContextPool {
+    private static final int MAX_IDLE_PER_SIZE = 4;
+    private static final int MAX_IDLE_SIZES = 2;
+
+    private static final ThreadLocal<Map<Long, ArrayDeque<SearchContext>>> IDLE =
+        ThreadLocal.withInitial(() -> new LinkedHashMap<Long, ArrayDeque<SearchContext>>(8, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ArrayDeque<SearchContext>> eldest) {
+                return size() > MAX_IDLE_SIZES;
+            }
+        });
+
+    private static final LongAdder borrowed = new LongAdder();
+    private static final LongAdder created = new LongAdder();
+
+    private SearchContextPool() {}
+
+    public static SearchContext borrow(GridGraph graph) {
+        SearchContext context = borrow(graph.getRows(), graph.getCols());
+        context.setProgress(SearchStats.progressListener());
+        return context;
+    }
+
+    // For searches over something other than a whole graph, e.g. one cluster
+    public static SearchContext borrow(int rows, int cols) {
+        borrowed.increment();
+        ArrayDeque<SearchContext> idle = IDLE.get().get(key(rows, cols));
+        SearchContext context = idle == null ? null : idle.pollFirst();
+        if (context == null) {
+            created.increment();
+            context = new SearchContext(rows, cols);
+        }
+        context.setTiming(SearchStats.isTimingEnabled());
+        context.setProgress(null);
+        context.begin();
+        return context;
+    }
+
+    // Delivers the context's last progress batch, if any, then pools it. The
+    // context is pooled even when the listener throws (a cancelled search):
+    // begin() resets whatever state the aborted query left behind.
+    public static void release(SearchContext context) {
+        try {
+            context.flushProgress();
+        } finally {
+            context.setProgress(null);
+            ArrayDeque<SearchContext> idle = IDLE.get()
+                .computeIfAbsent(key(context.getRows(), context.getCols()), k -> new ArrayDeque<>());
+            if (idle.size() < MAX_IDLE_PER_SIZE) {
+                idle.addFirst(context);
+            }
+        }
+    }
+
+    public static long getBorrowCount() { return borrowed.sum(); }
+    public static long getCreatedCount() { return created.sum(); }
+
+    // Drops this thread's idle contexts, e.g. after switching to a smaller map
+    // or at the end of a parallel task on a shared pool thread
+    public static void clearThread() {
+        IDLE.remove();
+    }
+
+    private static long key(int rows, int cols) {
+        return ((long) rows << 32) | (cols & 0xffffffffL);
+    }
+}
@@ -0,0 +1,20 @@
+// Sees every query finished on the thread it was installed on with
+// SearchStats.setListener, e.g. to aggregate stats over live traffic.
+// Called on the searching thread, so keep it cheap.
+public interface SearchListener {
+    void searchFinished(PathfindingAlgorithm algorithm, PathResult result);
+
+    // Return true to have heuristic, edge cost and total time measured;
+    // this adds two System.nanoTime calls per evaluation
+    default boolean wantsTiming() { return false; }
+
+    // Return true to receive searchProgress calls
+    default boolean wantsProgress() { return false; }
+
+    // Cells expanded since the previous call are cells[0 .. count); the array
+    // is reused afterwards. Comes every SearchContext.PROGRESS_INTERVAL
+    // expansions and once more when the search returns its context; only
+    // grid searches report (not HPA*'s cluster searches). Throwing, e.g. a
+    // CancellationException, aborts the search.
+    default void searchProgress(int[] cells, int count) {}
+}
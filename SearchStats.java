@@ -0,0 +1,96 @@
+// Work done by one query, attached to its PathResult. The counters are
+// always collected (a few int increments per relaxation). The three timing
+// fields stay 0 unless a SearchListener that wants timing is installed on
+// the searching thread, because timing calls System.nanoTime around every
+// heuristic and edge cost evaluation.
+public final class SearchStats {
+    public static final SearchStats EMPTY = new SearchStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    private static final ThreadLocal<SearchListener> LISTENER = new ThreadLocal<>();
+
+    private final int expanded;
+    private final int generated;
+    private final int pushes;
+    private final int decreases;
+    private final int pops;
+    private final int peakOpenSize;
+    private final long heuristicNanos;
+    private final long costNanos;
+    private final long totalNanos;
+
+    public SearchStats(int expanded, int generated, int pushes, int decreases, int pops, int peakOpenSize,
+                       long heuristicNanos, long costNanos, long totalNanos) {
+        this.expanded = expanded;
+        this.generated = generated;
+        this.pushes = pushes;
+        this.decreases = decreases;
+        this.pops = pops;
+        this.peakOpenSize = peakOpenSize;
+        this.heuristicNanos = heuristicNanos;
+        this.costNanos = costNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    // Cells taken off the open set and expanded
+    public int getExpanded() { return expanded; }
+    // Cells reached for the first time (given a cost)
+    public int getGenerated() { return generated; }
+    // Open set inserts, decrease-keys and removals
+    public int getPushes() { return pushes; }
+    public int getDecreases() { return decreases; }
+    public int getPops() { return pops; }
+    public int getPeakOpenSize() { return peakOpenSize; }
+    public long getHeuristicNanos() { return heuristicNanos; }
+    public long getCostNanos() { return costNanos; }
+    public long getTotalNanos() { return totalNanos; }
+
+    // Totals over several searches run for one query, e.g. both directions.
+    // Peak sizes don't add up, so the larger one is kept.
+    public SearchStats plus(SearchStats other) {
+        return new SearchStats(expanded + other.expanded, generated + other.generated, pushes + other.pushes,
+                               decreases + other.decreases, pops + other.pops,
+                               Math.max(peakOpenSize, other.peakOpenSize), heuristicNanos + other.heuristicNanos,
+                               costNanos + other.costNanos, totalNanos + other.totalNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("expanded=%d generated=%d pushes=%d decreases=%d pops=%d peakOpen=%d "
+                             + "heuristic=%.3fms cost=%.3fms total=%.3fms",
+                             expanded, generated, pushes, decreases, pops, peakOpenSize,
+                             heuristicNanos / 1e6, costNanos / 1e6, totalNanos / 1e6);
+    }
+
+    // Installs a listener for searches run on the calling thread; null removes it
+    public static void setListener(SearchListener listener) {
+        if (listener == null) {
+            LISTENER.remove();
+        } else {
+            LISTENER.set(listener);
+        }
+    }
+
+    public static SearchListener getListener() {
+        return LISTENER.get();
+    }
+
+    static boolean isTimingEnabled() {
+        SearchListener listener = LISTENER.get();
+        return listener != null && listener.wantsTiming();
+    }
+
+    // The listener if it wants searchProgress calls, else null
+    static SearchListener progressListener() {
+        SearchListener listener = LISTENER.get();
+        return listener != null && listener.wantsProgress() ? listener : null;
+    }
+
+    // Called by the pathfinders with each finished result; returns it unchanged
+    static PathResult report(PathfindingAlgorithm algorithm, PathResult result) {
+        SearchListener listener = LISTENER.get();
+        if (listener != null) {
+            listener.searchFinished(algorithm, result);
+        }
+        return result;
+    }
+}
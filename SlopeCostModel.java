@@ -0,0 +1,65 @@
+// The original terrain rules: flat steps cost the base cost, downhill gets
+// cheaper with the drop (down to a floor), uphill pays a steep penalty per
+// unit climbed. Optionally climbs above maxClimb are impassable, as for a
+// vehicle that can't take steep slopes. Costs scale with move distance.
+public class SlopeCostModel implements CostModel {
+    public static final SlopeCostModel DEFAULT = new SlopeCostModel(5.0, 2.0, 0.5, 20.0);
+
+    private static final double FLAT_THRESHOLD = 0.0001;
+
+    private final double baseCost;
+    private final double minStepCost;
+    private final double descentRate;
+    private final double climbRate;
+    private final double maxClimb;
+
+    public SlopeCostModel(double baseCost, double minStepCost, double descentRate, double climbRate) {
+        this(baseCost, minStepCost, descentRate, climbRate, Double.POSITIVE_INFINITY);
+    }
+
+    public SlopeCostModel(double baseCost, double minStepCost, double descentRate, double climbRate, double maxClimb) {
+        if (minStepCost <= 0 || climbRate < 0 || descentRate < 0) {
+            throw new IllegalArgumentException("Need 0 < minStepCost and non-negative rates");
+        }
+        // Near-flat climbs cost baseCost without the climb penalty, so the
+        // CostModel bound needs baseCost to cover it on its own
+        if (baseCost - minStepCost < climbRate * FLAT_THRESHOLD) {
+            throw new IllegalArgumentException("Need baseCost - minStepCost >= climbRate * " + FLAT_THRESHOLD);
+        }
+        this.baseCost = baseCost;
+        this.minStepCost = minStepCost;
+        this.descentRate = descentRate;
+        this.climbRate = climbRate;
+        this.maxClimb = maxClimb;
+    }
+
+    // Same rules, but steps climbing more than maxClimb can't be taken
+    public SlopeCostModel withMaxClimb(double maxClimb) {
+        return new SlopeCostModel(baseCost, minStepCost, descentRate, climbRate, maxClimb);
+    }
+
+    @Override
+    public double getCost(double fromHeight, double toHeight, double distance) {
+        double heightDiff = Math.abs(toHeight - fromHeight);
+
+        if (heightDiff < FLAT_THRESHOLD) {
+            return baseCost * distance; // flat ground - base cost
+        } else if (toHeight < fromHeight) {
+            // Downhill
+            return Math.max(minStepCost, baseCost - (heightDiff * descentRate)) * distance;
+        } else if (heightDiff > maxClimb) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            // Uphill: steeper penalty for climbing
+            return (baseCost + (heightDiff * climbRate)) * distance;
+        }
+    }
+
+    @Override
+    public double getMinStepCost() { return minStepCost; }
+
+    @Override
+    public double getClimbCost() { return climbRate; }
+
+    public double getMaxClimb() { return maxClimb; }
+}
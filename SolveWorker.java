@@ -0,0 +1,86 @@
+import javax.swing.SwingWorker;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+// Runs one pathfinder off the Event Dispatch Thread and streams the cells it
+// expands to a live GraphVisualizer panel. The search hands over batches
+// through SearchListener.searchProgress; SwingWorker merges the batches that
+// pile up while the EDT is busy into one process() call, and the panel
+// merges repaints on top of that. SwingWorker runs up to ten workers at once,
+// so the usual four algorithms search in parallel.
+//
+// cancel(true) stops the search at its next progress batch. onDone runs on
+// the EDT once the search has finished, failed or been cancelled.
+public class SolveWorker extends SwingWorker<PathResult, int[]> {
+    private final GridGraph graph;
+    private final PathfindingAlgorithm algorithm;
+    private final Node start;
+    private final Node end;
+    private final int index;
+    private final GraphVisualizer.GraphPanel panel;
+    private final Consumer<SolveWorker> onDone;
+    private volatile long nanos;
+
+    public SolveWorker(GridGraph graph, PathfindingAlgorithm algorithm, Node start, Node end, int index,
+                       GraphVisualizer.GraphPanel panel, Consumer<SolveWorker> onDone) {
+        this.graph = graph;
+        this.algorithm = algorithm;
+        this.start = start;
+        this.end = end;
+        this.index = index;
+        this.panel = panel;
+        this.onDone = onDone;
+    }
+
+    public int getIndex() { return index; }
+
+    // Search time, including the progress reporting; 0 until done
+    public long getNanos() { return nanos; }
+
+    @Override
+    protected PathResult doInBackground() {
+        SearchListener previous = SearchStats.getListener();
+        SearchStats.setListener(new SearchListener() {
+            @Override
+            public void searchFinished(PathfindingAlgorithm algorithm, PathResult result) {}
+
+            @Override
+            public boolean wantsProgress() { return true; }
+
+            @Override
+            public void searchProgress(int[] cells, int count) {
+                if (isCancelled()) {
+                    throw new CancellationException();
+                }
+                publish(Arrays.copyOf(cells, count));
+            }
+        });
+        try {
+            long startTime = System.nanoTime();
+            PathResult result = algorithm.findPath(graph, start, end);
+            nanos = System.nanoTime() - startTime;
+            return result;
+        } finally {
+            SearchStats.setListener(previous);
+            // Worker threads outlive the map; don't keep full-size contexts around
+            SearchContextPool.clearThread();
+        }
+    }
+
+    @Override
+    protected void process(List<int[]> batches) {
+        if (isCancelled()) {
+            return;
+        }
+        for (int[] cells : batches) {
+            panel.showExpanded(index, cells);
+        }
+    }
+
+    @Override
+    protected void done() {
+        onDone.accept(this);
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// A* whose memory grows with the cells it touches, not with the map, for
+// worlds like a big TiledHeightField where rows * cols doesn't fit an int
+// and a full-grid SearchContext couldn't be allocated anyway. Cells are
+// identified by long row * cols + col and given dense slot numbers on first
+// sight; per-slot state lives in arrays that grow as needed.
+//
+// Reads heights through graph.getHeightField() and costs through
+// graph.getCostModel(), so the graph only needs to wrap the field (the
+// GridGraph(HeightField) constructors allocate nothing per cell). The
+// heuristic is the cost-model bound of CostModelHeuristic, with the metric
+// for the graph's connectivity. Moves and corner rules are the graph's.
+//
+// maxExpanded caps the work per query: a search that hits it gives up and
+// returns an empty path, which keeps an unreachable goal in an unbounded
+// world from running until the heap is exhausted.
+public class SparseAStarPathfinder implements PathfindingAlgorithm {
+    private static final int INITIAL_SLOTS = 1 << 12;
+
+    private final int maxExpanded;
+
+    public SparseAStarPathfinder() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public SparseAStarPathfinder(int maxExpanded) {
+        this.maxExpanded = maxExpanded;
+    }
+
+    @Override
+    public PathResult findPath(GridGraph graph, Node start, Node end) {
+        HeightField heights = graph.getHeightField();
+        CostModel costModel = graph.getCostModel();
+        int rows = graph.getRows();
+        int cols = graph.getCols();
+        double minStep = costModel.getMinStepCost();
+        double climb = costModel.getClimbCost();
+        int directions = graph.getDirectionCount();
+        CostModelHeuristic.Metric metric = CostModelHeuristic.Metric.forConnectivity(graph.getConnectivity());
+        int endRow = end.getRow();
+        int endCol = end.getCol();
+        double endHeight = heights.getHeight(endRow, endCol);
+
+        Slots slots = new Slots();
+        IndexedMinHeap openSet = new IndexedMinHeap(INITIAL_SLOTS);
+        int expanded = 0;
+
+        int source = slots.add((long) start.getRow() * cols + start.getCol(), heights.getHeight(start.getRow(), start.getCol()));
+        slots.cost[source] = 0;
+        slots.parent[source] = -1;
+        openSet.insertOrDecrease(source, 0);
+
+        int goal = -1;
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            long cell = slots.cell[current];
+            int r = (int) (cell / cols);
+            int c = (int) (cell % cols);
+            if (r == endRow && c == endCol) {
+                goal = current;
+                break;
+            }
+            if (expanded == maxExpanded) {
+                break;
+            }
+            slots.closed[current] = true;
+            expanded++;
+
+            double g = slots.cost[current];
+            double h = slots.height[current];
+            for (int dir = 0; dir < directions; dir++) {
+                int nr = r + GridGraph.getRowOffset(dir);
+                int nc = c + GridGraph.getColOffset(dir);
+                if (nr < 0 || nr >= rows || nc < 0 || nc >= cols) {
+                    continue;
+                }
+                long nextCell = (long) nr * cols + nc;
+                int next = slots.find(nextCell);
+                if (next >= 0 && slots.closed[next]) {
+                    continue;
+                }
+                double nextHeight = next >= 0 ? slots.height[next] : heights.getHeight(nr, nc);
+                double tentative = g + costModel.getCost(h, nextHeight, GridGraph.getDistance(dir));
+                if (tentative == Double.POSITIVE_INFINITY || (next >= 0 && tentative >= slots.cost[next])
+                    || !graph.isCornerAllowed(r, c, dir)) {
+                    continue;
+                }
+                if (next < 0) {
+                    next = slots.add(nextCell, nextHeight);
+                    openSet.ensureCapacity(slots.cell.length);
+                }
+                slots.cost[next] = tentative;
+                slots.parent[next] = current;
+                double estimate = minStep * CostModelHeuristic.distance(metric, Math.abs(nr - endRow), Math.abs(nc - endCol))
+                    + (endHeight > nextHeight ? climb * (endHeight - nextHeight) : 0);
+                openSet.insertOrDecrease(next, tentative + estimate);
+            }
+        }
+
+        SearchStats stats = new SearchStats(expanded, slots.size, openSet.getPushCount(), openSet.getDecreaseCount(),
+                                            openSet.getPollCount(), openSet.getPeakSize(), 0, 0, 0);
+        if (goal < 0) {
+            return SearchStats.report(this, new PathResult(List.of(), Double.POSITIVE_INFINITY, stats));
+        }
+        List<Node> path = new ArrayList<>();
+        for (int slot = goal; slot >= 0; slot = slots.parent[slot]) {
+            long cell = slots.cell[slot];
+            path.add(new Node((int) (cell / cols), (int) (cell % cols), slots.height[slot]));
+        }
+        Collections.reverse(path);
+        return SearchStats.report(this, new PathResult(path, slots.cost[goal], stats));
+    }
+
+    // Dense per-query slots for the cells seen so far, with an open-addressing
+    // long -> slot index (linear probing, power-of-two table)
+    private static final class Slots {
+        long[] cell = new long[INITIAL_SLOTS];
+        double[] height = new double[INITIAL_SLOTS];
+        double[] cost = new double[INITIAL_SLOTS];
+        int[] parent = new int[INITIAL_SLOTS];
+        boolean[] closed = new boolean[INITIAL_SLOTS];
+        int size;
+
+        private int[] table = newTable(INITIAL_SLOTS * 2);
+
+        int find(long key) {
+            int mask = table.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                int slot = table[i];
+                if (slot < 0 || cell[slot] == key) {
+                    return slot;
+                }
+            }
+        }
+
+        int add(long key, double h) {
+            if (size == cell.length) {
+                int capacity = size * 2;
+                cell = Arrays.copyOf(cell, capacity);
+                height = Arrays.copyOf(height, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                closed = Arrays.copyOf(closed, capacity);
+            }
+            int slot = size++;
+            cell[slot] = key;
+            height[slot] = h;
+            if (size * 2 > table.length) {
+                rehash(table.length * 2);
+            } else {
+                insert(table, slot);
+            }
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            table = newTable(capacity);
+            for (int slot = 0; slot < size; slot++) {
+                insert(table, slot);
+            }
+        }
+
+        private void insert(int[] into, int slot) {
+            int mask = into.length - 1;
+            int i = hash(cell[slot]) & mask;
+            while (into[i] >= 0) {
+                i = (i + 1) & mask;
+            }
+            into[i] = slot;
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, -1);
+            return table;
+        }
+
+        private static int hash(long key) {
+            long z = key * 0x9E3779B97F4A7C15L;
+            return (int) (z ^ (z >>> 32));
+        }
+    }
+}
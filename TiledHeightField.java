@@ -0,0 +1,175 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Heights for worlds too big to hold in memory. The world is never stored:
+// it's octave value noise evaluated from a seed, so any cell can be
+// produced on its own and adjacent tiles agree along their edges. Cells are
+// generated a tile (tileSize x tileSize) at a time and kept in an LRU cache
+// of at most maxTiles tiles, so memory stays bounded however far a search
+// wanders.
+//
+// Safe for concurrent readers: tiles are immutable once built, and the cache
+// is locked only to look one up or add it. Two threads missing the same tile
+// may both build it; the results are identical.
+//
+// rows * cols may exceed Integer.MAX_VALUE. GridGraph's int cell ids and
+// full-grid SearchContexts can't cover such a world; search it with
+// SparseAStarPathfinder instead.
+public class TiledHeightField implements HeightField {
+    private final int rows;
+    private final int cols;
+    private final int tileSize;
+    private final int maxTiles;
+    private final int tileCols;
+    private final long seed;
+    private final int octaves;
+    private final double baseFrequency;
+    private final double persistence;
+    private final double heightScale; // maxHeight / sum of octave amplitudes
+    private final Map<Long, float[]> cache;
+
+    private volatile Tile last; // most recently used tile, checked before the cache
+    private final LongAdder tilesBuilt = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private static final class Tile {
+        final long key;
+        final float[] heights;
+
+        Tile(long key, float[] heights) {
+            this.key = key;
+            this.heights = heights;
+        }
+    }
+
+    // featureSize: cells across the largest hills; each further octave
+    // halves the feature size and scales the amplitude by persistence
+    public TiledHeightField(int rows, int cols, long seed, double featureSize, int octaves, double persistence,
+                            double maxHeight, int tileSize, int maxTiles) {
+        if (tileSize < 1 || maxTiles < 1 || octaves < 1) {
+            throw new IllegalArgumentException("tileSize, maxTiles and octaves must be at least 1");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.tileSize = tileSize;
+        this.maxTiles = maxTiles;
+        this.tileCols = (cols + tileSize - 1) / tileSize;
+        this.seed = seed;
+        this.octaves = octaves;
+        this.baseFrequency = 1.0 / featureSize;
+        this.persistence = persistence;
+        double amplitudes = 0;
+        for (int o = 0; o < octaves; o++) {
+            amplitudes += Math.pow(persistence, o);
+        }
+        this.heightScale = maxHeight / amplitudes;
+        this.cache = new LinkedHashMap<Long, float[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+                return size() > maxTiles;
+            }
+        };
+    }
+
+    @Override
+    public int getRows() { return rows; }
+
+    @Override
+    public int getCols() { return cols; }
+
+    public int getTileSize() { return tileSize; }
+    public long getCellCount() { return (long) rows * cols; }
+
+    // With the cache full; it never holds more than maxTiles tiles
+    @Override
+    public double getHeapBytesPerCell() {
+        return 4.0 * tileSize * tileSize * maxTiles / getCellCount();
+    }
+
+    // Tiles generated so far, counting ones regenerated after eviction
+    public long getTilesBuilt() { return tilesBuilt.sum(); }
+    public long getCacheMisses() { return cacheMisses.sum(); }
+
+    @Override
+    public double getHeight(int row, int col) {
+        int tileRow = row / tileSize;
+        int tileCol = col / tileSize;
+        long key = (long) tileRow * tileCols + tileCol;
+        Tile tile = last;
+        if (tile == null || tile.key != key) {
+            tile = new Tile(key, tile(tileRow, tileCol, key));
+            last = tile;
+        }
+        return tile.heights[(row - tileRow * tileSize) * tileSize + (col - tileCol * tileSize)];
+    }
+
+    @Override
+    public double getHeight(int index) {
+        return getHeight(index / cols, index % cols);
+    }
+
+    private float[] tile(int tileRow, int tileCol, long key) {
+        float[] heights;
+        synchronized (cache) {
+            heights = cache.get(key);
+        }
+        if (heights != null) {
+            return heights;
+        }
+        cacheMisses.increment();
+        heights = buildTile(tileRow, tileCol);
+        tilesBuilt.increment();
+        synchronized (cache) {
+            cache.put(key, heights);
+        }
+        return heights;
+    }
+
+    // Cells past the world's edge are generated too (tiles are always full);
+    // nothing reads them
+    private float[] buildTile(int tileRow, int tileCol) {
+        float[] heights = new float[tileSize * tileSize];
+        int row0 = tileRow * tileSize;
+        int col0 = tileCol * tileSize;
+        double frequency = baseFrequency;
+        double amplitude = heightScale;
+        for (int o = 0; o < octaves; o++) {
+            long octaveSeed = seed + o * 0x632BE59BD9B4E019L;
+            for (int r = 0; r < tileSize; r++) {
+                double y = (row0 + r) * frequency;
+                long y0 = (long) Math.floor(y);
+                double fy = fade(y - y0);
+                for (int c = 0; c < tileSize; c++) {
+                    double x = (col0 + c) * frequency;
+                    long x0 = (long) Math.floor(x);
+                    double fx = fade(x - x0);
+                    double top = lerp(lattice(octaveSeed, y0, x0), lattice(octaveSeed, y0, x0 + 1), fx);
+                    double bottom = lerp(lattice(octaveSeed, y0 + 1, x0), lattice(octaveSeed, y0 + 1, x0 + 1), fx);
+                    heights[r * tileSize + c] += (float) (lerp(top, bottom, fy) * amplitude);
+                }
+            }
+            frequency *= 2;
+            amplitude *= persistence;
+        }
+        return heights;
+    }
+
+    // Quintic smoothstep: continuous slope across lattice lines, so no creases
+    private static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    // Noise value at a lattice point, uniform in [0, 1) (SplitMix64 mixing)
+    private static double lattice(long seed, long y, long x) {
+        long z = seed + 0x9E3779B97F4A7C15L * (y * 0x100000001B3L ^ x);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+}